@@ -0,0 +1,49 @@
+package net.ypmania.jio.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Runs JMH with the given command line, adding the allocation profiler (-prof gc) unless it's already given. Most of the overhead JIO
+ * can add to ZIO is allocation, so the numbers are hard to interpret without it. Like JMH's own Main, this handles
+ * -h, -l, -lp, -lprof and -lrf instead of running benchmarks. */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        CommandLineOptions cmdOptions;
+        try {
+            cmdOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line:");
+            System.err.println(" " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (cmdOptions.shouldHelp()) {
+            cmdOptions.showHelp();
+        } else if (cmdOptions.shouldList()) {
+            new Runner(cmdOptions).list();
+        } else if (cmdOptions.shouldListWithParams()) {
+            new Runner(cmdOptions).listWithParams(cmdOptions);
+        } else if (cmdOptions.shouldListProfilers()) {
+            cmdOptions.listProfilers();
+        } else if (cmdOptions.shouldListResultFormats()) {
+            cmdOptions.listResultFormats();
+        } else {
+            var options = new OptionsBuilder().parent(cmdOptions);
+            if (!profilesAllocations(cmdOptions)) {
+                options.addProfiler(GCProfiler.class);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+
+    /** Whether the command line already asks for the allocation profiler, which JMH would otherwise run twice. */
+    private static boolean profilesAllocations(CommandLineOptions cmdOptions) {
+        return cmdOptions.getProfilers().stream()
+            .anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+    }
+}
@@ -0,0 +1,74 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.Exit;
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+
+/** Validates a batch of inputs of which half are invalid, handing every outcome to plain Java code. This compares
+ * failing through a fresh exception per invalid input, with receiving the failure as an Exit, and with validating the
+ * whole batch in one go through validatePar. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FailureBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    private List<Integer> inputs;
+
+    @Setup
+    public void setup() {
+        inputs = IntStream.range(0, size).boxed().toList();
+    }
+
+    private static JIO<Object, String, Integer> validate(int i) {
+        return (i % 2 == 0) ? JIO.<Integer>succeed(i).<String>toJIO() : JIO.fail("odd");
+    }
+
+    @Benchmark
+    public int jioException() {
+        int valid = 0;
+        for (int i: inputs) {
+            try {
+                valid += Runtime.runtime.unsafeRunSync(validate(i).<Integer>catchAllU(e -> { throw new IllegalStateException(e); }));
+            } catch (IllegalStateException x) {
+                valid--;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int jioExit() {
+        int valid = 0;
+        for (int i: inputs) {
+            var exit = Runtime.runtime.unsafeRunExitSync(validate(i));
+            valid += (exit instanceof Exit.Success<String, Integer> s) ? s.value() : -1;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public Exit<List<String>, List<Integer>> jioValidatePar() {
+        return Runtime.runtime.unsafeRunExitSync(JIO.<Object, String, Integer, Integer>validatePar(inputs, FailureBenchmark::validate));
+    }
+}
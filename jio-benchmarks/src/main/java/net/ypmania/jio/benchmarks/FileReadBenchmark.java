@@ -0,0 +1,102 @@
+package net.ypmania.jio.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.nio.ChannelIO;
+
+/** Sums the bytes of a file through ChannelIO and through a plain InputStream. The file is written once, so after the
+ * first iteration it is read from the page cache, which measures the cost of getting bytes into Java rather than disk
+ * speed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileReadBenchmark {
+    @Param({"67108864"})
+    public int fileSize;
+
+    @Param({"65536"})
+    public int bufferSize;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("jio-benchmark", ".bin");
+        var bytes = new byte[fileSize];
+        new Random(42).nextBytes(bytes);
+        Files.write(file, bytes);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    private static long sum(long sum, ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            sum += buffer.get();
+        }
+        return sum;
+    }
+
+    private static <A> A run(JIO<Object, IOException, A> jio) {
+        return Runtime.runtime.unsafeRunSync(jio.<A>catchAllU(e -> { throw new IllegalStateException(e); }));
+    }
+
+    @Benchmark
+    public long jioFold() {
+        return run(ChannelIO.foldFile(file, bufferSize, 0L, FileReadBenchmark::sum));
+    }
+
+    @Benchmark
+    public long jioFoldMapped() {
+        return run(JIO.scoped(ChannelIO.open(file, StandardOpenOption.READ).flatMap(channel ->
+            ChannelIO.foldMapped(channel, Integer.MAX_VALUE, 0L, FileReadBenchmark::sum)
+        )));
+    }
+
+    @Benchmark
+    public long jioFoldAsync() {
+        return run(JIO.scoped(ChannelIO.openAsync(file, StandardOpenOption.READ).flatMap(channel ->
+            ChannelIO.foldAsync(channel, bufferSize, 0L, FileReadBenchmark::sum)
+        )));
+    }
+
+    @Benchmark
+    public long inputStream() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            var bytes = new byte[bufferSize];
+            long sum = 0;
+            int n;
+            while ((n = in.read(bytes)) >= 0) {
+                sum = sum(sum, ByteBuffer.wrap(bytes, 0, n));
+            }
+            return sum;
+        }
+    }
+}
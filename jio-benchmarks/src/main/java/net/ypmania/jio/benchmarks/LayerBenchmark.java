@@ -0,0 +1,87 @@
+package net.ypmania.jio.benchmarks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Layer;
+import net.ypmania.jio.Runtime;
+
+/** Starts up a graph of services that each take [initMillis] to initialize, and all depend on a shared configuration.
+ * The services are split into [depth] levels, where each level needs the previous one, and the services within a level
+ * are independent of each other. The layer graph builds the configuration once and each level in parallel, while the
+ * hand-wired baseline initializes everything one after the other. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerBenchmark {
+    @Param({"50"})
+    public int services;
+
+    @Param({"1", "5", "50"})
+    public int depth;
+
+    @Param({"1"})
+    public int initMillis;
+
+    private Duration init;
+    private List<Integer> ids;
+    private Layer<Object, Void, List<Integer>> graph;
+
+    @Setup
+    public void setup() {
+        init = Duration.ofMillis(initMillis);
+        ids = IntStream.range(0, services).boxed().toList();
+        var config = Layer.<Object, Void, Duration>fromJIO(JIO.sleep(init).as(init));
+        int width = services / depth;
+        graph = Layer.succeed(List.of());
+        for (int level = 0; level < depth; level++) {
+            Layer<Object, Void, List<Integer>> next = Layer.succeed(List.of());
+            for (int i = 0; i < width; i++) {
+                next = next.and(service(config, level * width + i), LayerBenchmark::append);
+            }
+            graph = graph.to(next);
+        }
+    }
+
+    private static Layer<Object, Void, Integer> service(Layer<Object, Void, Duration> config, int id) {
+        return config.to(Layer.<Duration, Void, Integer>fromJIO(JIO.<Duration>environment().flatMapU(d -> JIO.sleep(d)).as(id)));
+    }
+
+    private static List<Integer> append(List<Integer> list, Integer id) {
+        var res = new ArrayList<Integer>(list.size() + 1);
+        res.addAll(list);
+        res.add(id);
+        return res;
+    }
+
+    @Benchmark
+    public List<Integer> jioLayer() {
+        var jio = JIO.<List<Integer>>environment().provideLayer(graph).catchAllU(e -> JIO.succeed(List.<Integer>of()));
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public List<Integer> jioSequential() {
+        var jio = JIO.sleep(init).flatMapU(u -> JIO.foreachU(ids, i -> JIO.sleep(init).as(i)));
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+}
@@ -0,0 +1,76 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Sums a list through an effect per element. jioManual spells out the flatMap chain that code would build without
+ * the looping combinators, creating an effect per element before running any of them. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoopBenchmark {
+    @Param({"1000", "100000"})
+    public int items;
+
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = IntStream.rangeClosed(1, items).boxed().toList();
+    }
+
+    @Benchmark
+    public Long jioManual() {
+        UJIO<Object, Long> jio = JIO.succeed(0L);
+        for (var i: list) {
+            jio = jio.flatMapU(sum -> JIO.succeed(sum + i));
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long jioFoldLeft() {
+        return Runtime.runtime.unsafeRunSync(JIO.foldLeftU(list, 0L, (sum, i) -> JIO.succeed(sum + i)));
+    }
+
+    @Benchmark
+    public Long jioForeach() {
+        var jio = JIO.foreachU(list, i -> JIO.succeed(i)).map(is -> is.stream().mapToLong(i -> i).sum());
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioIterate() {
+        return Runtime.runtime.unsafeRunSync(JIO.iterateU(0, i -> i < items, i -> JIO.succeed(i + 1)));
+    }
+
+    @Benchmark
+    public Long zioFoldLeft() {
+        return RuntimePrograms.runSync(LoopPrograms.foldLeft(items));
+    }
+
+    @Benchmark
+    public Integer zioIterate() {
+        return RuntimePrograms.runSync(LoopPrograms.iterate(items));
+    }
+}
@@ -0,0 +1,53 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Builds and runs a chain of maps. jioFlatMapSucceed spells out how map used to be lowered, as flatMap + succeed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"1", "16", "64"})
+    public int depth;
+
+    @Benchmark
+    public Integer jioMap() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.map(n -> n + 1);
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioFlatMapSucceed() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.flatMapU(n -> JIO.succeed(n + 1));
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer zioMap() {
+        return RuntimePrograms.runSync(MapPrograms.mapChain(depth));
+    }
+}
@@ -0,0 +1,74 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Runs a CPU-bound task for every item, sequentially and in parallel. Run this on a multi-core machine. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+    @Param({"1000"})
+    public int items;
+
+    @Param({"1000"})
+    public long tokens;
+
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = IntStream.rangeClosed(1, items).boxed().toList();
+    }
+
+    private UJIO<Object, Integer> work(int i) {
+        return JIO.succeedWith(() -> {
+            Blackhole.consumeCPU(tokens);
+            return i;
+        });
+    }
+
+    @Benchmark
+    public Integer jioForeachPar() {
+        var jio = JIO.foreachParU(list, this::work).map(is -> is.stream().mapToInt(i -> i).sum());
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioForeachParBounded() {
+        var jio = JIO.foreachParU(list, this::work).map(is -> is.stream().mapToInt(i -> i).sum())
+            .withParallelism(java.lang.Runtime.getRuntime().availableProcessors());
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer zioForeach() {
+        return RuntimePrograms.runSync(ParallelPrograms.foreach(items, tokens));
+    }
+
+    @Benchmark
+    public Integer zioForeachPar() {
+        return RuntimePrograms.runSync(ParallelPrograms.foreachPar(items, tokens));
+    }
+}
@@ -0,0 +1,49 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Builds and runs a chain of provideFrom calls, each deriving its environment from the one outside it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProvideBenchmark {
+    @Param({"1", "16", "64"})
+    public int depth;
+
+    @Benchmark
+    public Integer jioProvideFrom() {
+        UJIO<Integer, Integer> jio = JIO.<Integer>environment();
+        for (int i = 0; i < depth; i++) {
+            jio = jio.<Integer>provideFrom(n -> n + 1);
+        }
+        return Runtime.runtime.unsafeRunSync(jio.provide(0));
+    }
+
+    @Benchmark
+    public Integer zioProvideEnvironment() {
+        return RuntimePrograms.runSync(ProvidePrograms.provideEnvironmentChain(depth));
+    }
+
+    @Benchmark
+    public Integer zioProvideLayer() {
+        return RuntimePrograms.runSync(ProvidePrograms.provideLayerChain(depth));
+    }
+}
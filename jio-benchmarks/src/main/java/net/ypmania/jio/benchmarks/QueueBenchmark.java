@@ -0,0 +1,144 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Queue;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Hands items from a producer to a consumer through a bounded queue, one at a time and in batches, comparing JIO's
+ * Queue with the java.util.concurrent queues (with the producer on its own thread). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+    @Param({"10000"})
+    public int items;
+
+    @Param({"1024"})
+    public int capacity;
+
+    @Param({"64"})
+    public int batchSize;
+
+    private List<List<Integer>> batches;
+    private ExecutorService producer;
+
+    @Setup
+    public void setup() {
+        var all = IntStream.range(0, items).boxed().toList();
+        batches = IntStream.range(0, (items + batchSize - 1) / batchSize)
+            .mapToObj(b -> all.subList(b * batchSize, Math.min(items, (b + 1) * batchSize)))
+            .toList();
+        producer = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.shutdown();
+    }
+
+    private UJIO<Object, Object> produce(Queue<Integer> queue, int i) {
+        return (i == items) ? JIO.empty() : queue.offer(i).flatMapU(b -> produce(queue, i + 1));
+    }
+
+    private UJIO<Object, Long> consume(Queue<Integer> queue, int remaining, long sum) {
+        return (remaining == 0) ? JIO.succeed(sum) : queue.take().flatMapU(i -> consume(queue, remaining - 1, sum + i));
+    }
+
+    private UJIO<Object, Object> produceBatches(Queue<Integer> queue, int batch) {
+        return (batch == batches.size()) ? JIO.empty() : queue.offerAll(batches.get(batch)).flatMapU(rejected -> produceBatches(queue, batch + 1));
+    }
+
+    private UJIO<Object, Long> consumeBatches(Queue<Integer> queue, int remaining, long sum) {
+        if (remaining == 0) {
+            return JIO.succeed(sum);
+        }
+        // Wait for one item, then take whatever else is already there.
+        return queue.take().flatMapU(first -> queue.takeUpTo(batchSize - 1).flatMapU(rest ->
+            consumeBatches(queue, remaining - 1 - rest.size(), sum + first + rest.stream().mapToLong(i -> i).sum())
+        ));
+    }
+
+    @Benchmark
+    public Long jioOfferTake() {
+        var jio = Queue.<Integer>bounded(capacity).flatMapU(queue ->
+            produce(queue, 0).fork().flatMapU(fiber -> consume(queue, items, 0))
+        );
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long jioOfferAllTakeUpTo() {
+        var jio = Queue.<Integer>bounded(capacity).flatMapU(queue ->
+            produceBatches(queue, 0).fork().flatMapU(fiber -> consumeBatches(queue, items, 0))
+        );
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long zioOfferTake() {
+        return RuntimePrograms.runSync(QueuePrograms.offerTake(items, capacity));
+    }
+
+    @Benchmark
+    public long arrayBlockingQueue() throws InterruptedException {
+        var queue = new ArrayBlockingQueue<Integer>(capacity);
+        producer.submit(() -> {
+            for (int i = 0; i < items; i++) {
+                queue.put(i);
+            }
+            return null;
+        });
+        long sum = 0;
+        for (int n = 0; n < items; n++) {
+            sum += queue.take();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long concurrentLinkedQueue() {
+        var queue = new ConcurrentLinkedQueue<Integer>();
+        producer.execute(() -> {
+            for (int i = 0; i < items; i++) {
+                queue.offer(i);
+            }
+        });
+        long sum = 0;
+        int n = 0;
+        while (n < items) {
+            var i = queue.poll();
+            if (i == null) {
+                Thread.onSpinWait();
+            } else {
+                sum += i;
+                n++;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Round-trip cost of handing a trivial effect to a runtime and getting its result back. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimeBenchmark {
+    private final UJIO<Object, Integer> jio = JIO.succeed(42);
+
+    @Benchmark
+    public Integer jioUnsafeRun() throws InterruptedException, ExecutionException {
+        return Runtime.runtime.unsafeRun(jio).get();
+    }
+
+    @Benchmark
+    public Integer jioUnsafeRunSync() {
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer zioRunThroughScalaFuture() throws InterruptedException, ExecutionException {
+        return RuntimePrograms.runThroughScalaFuture(RuntimePrograms.succeed()).get();
+    }
+
+    @Benchmark
+    public Integer zioRunSync() {
+        return RuntimePrograms.runSync(RuntimePrograms.succeed());
+    }
+}
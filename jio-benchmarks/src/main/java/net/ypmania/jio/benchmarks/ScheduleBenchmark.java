@@ -0,0 +1,57 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.Schedule;
+
+/** Repeats a succeeding effect, and retries a failing one, a fixed number of times. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmark {
+    @Param({"1", "16"})
+    public int times;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Benchmark
+    public Long jioRepeat() {
+        return Runtime.runtime.unsafeRunSync(JIO.succeedWith(() -> counter.incrementAndGet()).repeat(Schedule.recurs(times)));
+    }
+
+    @Benchmark
+    public Integer jioRetry() {
+        var jio = JIO.succeedWith(() -> counter.incrementAndGet())
+            .flatMap(n -> JIO.<String, Integer>fail("failed"))
+            .retry(Schedule.recurs(times))
+            .catchAllU(e -> JIO.succeed(counter.get()));
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long zioRepeat() {
+        return RuntimePrograms.runSync(SchedulePrograms.repeat(times, counter));
+    }
+
+    @Benchmark
+    public Integer zioRetry() {
+        return RuntimePrograms.runSync(SchedulePrograms.retry(times, counter));
+    }
+}
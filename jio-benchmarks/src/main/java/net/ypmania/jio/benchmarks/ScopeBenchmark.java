@@ -0,0 +1,62 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.Scope;
+import net.ypmania.jio.UJIO;
+
+/** Opens a scope, acquires resources in it and releases them when the scope closes. */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeBenchmark {
+    @Param({"1", "16"})
+    public int resources;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Benchmark
+    public Integer jioAcquireRelease() {
+        UJIO<Scope, Integer> resource = JIO.acquireReleaseU(
+            JIO.succeedWith(() -> counter.incrementAndGet()),
+            n -> JIO.succeedWith(() -> counter.decrementAndGet()));
+        UJIO<Scope, Integer> jio = JIO.<Scope, Integer>cast(JIO.succeed(0));
+        for (int i = 0; i < resources; i++) {
+            jio = jio.flatMapU(sum -> resource.map(n -> sum + n));
+        }
+        return Runtime.runtime.unsafeRunSync(JIO.scoped(jio));
+    }
+
+    @Benchmark
+    public Integer jioScopedWith() {
+        return Runtime.runtime.unsafeRunSync(JIO.<Object, Integer>scopedWithU(scope ->
+            scope.addFinalizer(JIO.succeedWith(() -> counter.decrementAndGet())).map(u -> counter.incrementAndGet())
+        ));
+    }
+
+    @Benchmark
+    public Integer zioAcquireRelease() {
+        return RuntimePrograms.runSync(ScopePrograms.acquireRelease(resources, counter));
+    }
+
+    @Benchmark
+    public Integer zioScopedWith() {
+        return RuntimePrograms.runSync(ScopePrograms.scopedWith(counter));
+    }
+}
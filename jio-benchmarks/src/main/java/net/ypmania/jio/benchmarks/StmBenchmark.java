@@ -0,0 +1,87 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+import net.ypmania.jio.stm.STM;
+import net.ypmania.jio.stm.TRef;
+import net.ypmania.jio.stm.USTM;
+
+/** Runs many parallel transfers between a number of accounts, keeping all balances consistent through STM and through
+ * a single ReentrantLock. Fewer accounts means more contention. Run this on a multi-core machine. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StmBenchmark {
+    @Param({"2", "64"})
+    public int accounts;
+
+    @Param({"10000"})
+    public int transfers;
+
+    private List<Integer> list;
+    private List<TRef<Long>> trefs;
+    private long[] balances;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Setup
+    public void setup() {
+        list = IntStream.range(0, transfers).boxed().toList();
+        trefs = Runtime.runtime.unsafeRunSync(JIO.foreachU(IntStream.range(0, accounts).boxed().toList(), i -> TRef.makeCommit(1000L)));
+        balances = new long[accounts];
+        Arrays.fill(balances, 1000L);
+    }
+
+    private USTM<Object> transfer(TRef<Long> from, TRef<Long> to) {
+        return from.get().flatMapU(balance -> (balance > 0)
+            ? from.set(balance - 1).flatMapU(u -> to.update(b -> b + 1))
+            : STM.succeed(null));
+    }
+
+    @Benchmark
+    public List<Object> jioStm() {
+        var jio = JIO.foreachParU(list, i -> STM.atomically(transfer(trefs.get(i % accounts), trefs.get((i + 1) % accounts))));
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    private UJIO<Object, Object> transferLocked(int from, int to) {
+        return JIO.succeedWith(() -> {
+            lock.lock();
+            try {
+                if (balances[from] > 0) {
+                    balances[from]--;
+                    balances[to]++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Benchmark
+    public List<Object> jioReentrantLock() {
+        var jio = JIO.foreachParU(list, i -> transferLocked(i % accounts, (i + 1) % accounts));
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+}
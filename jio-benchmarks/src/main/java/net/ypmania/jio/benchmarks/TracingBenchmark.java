@@ -0,0 +1,66 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.Tracing;
+import net.ypmania.jio.UJIO;
+
+/** Builds and runs effects with tracing on and off. jioFlatMap only uses operators that cache their trace per lambda,
+ * while jioZip uses zip(), which has no lambda of the caller and walks the stack every time. The benchmark lives in
+ * JIO's packages, so the fork counts only the libraries beneath JIO as internal, like an application would. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djio.tracing.internal=java,jdk,scala,zio,net.ypmania.ziojava")
+public class TracingBenchmark {
+    @Param({"false", "true"})
+    public boolean tracing;
+
+    @Param({"16"})
+    public int depth;
+
+    @Setup
+    public void setup() {
+        Tracing.setEnabled(tracing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Tracing.setEnabled(false);
+    }
+
+    @Benchmark
+    public Integer jioFlatMap() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.flatMapU(n -> JIO.succeed(n + 1));
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioZip() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zip(JIO.succeed(1)).map(t -> t._1() + t._2());
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+}
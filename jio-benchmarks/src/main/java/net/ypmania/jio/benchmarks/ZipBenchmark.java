@@ -0,0 +1,93 @@
+package net.ypmania.jio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+/** Builds and runs a chain of zips, each combining the result so far with another effect. The long variants use values
+ * outside of Long's box cache, to compare the allocations of zip() + map() against zipWithLong(). The nested variant
+ * builds a Tuple2 inside a Tuple2 for every step, where zip3() builds a single Tuple3. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipBenchmark {
+    private static final Long LARGE = 1_000_000L;
+
+    @Param({"1", "16", "64"})
+    public int depth;
+
+    @Benchmark
+    public Integer jioZipWith() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zipWith(JIO.succeed(1), Integer::sum);
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioZip() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zip(JIO.succeed(1)).map(t -> t._1() + t._2());
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long jioZipLong() {
+        UJIO<Object, Long> jio = JIO.succeed(0L);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zip(JIO.succeed(LARGE)).map(t -> t._1() + t._2());
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Long jioZipWithLong() {
+        UJIO<Object, Long> jio = JIO.succeed(0L);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zipWithLong(JIO.succeed(LARGE), (a, b) -> a + b);
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioZipNested() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zip(JIO.succeed(1)).zip(JIO.succeed(2)).map(t -> t._1()._1() + t._1()._2() + t._2());
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer jioZip3() {
+        UJIO<Object, Integer> jio = JIO.succeed(0);
+        for (int i = 0; i < depth; i++) {
+            jio = jio.zip3(JIO.succeed(1), JIO.succeed(2)).map(t -> t._1() + t._2() + t._3());
+        }
+        return Runtime.runtime.unsafeRunSync(jio);
+    }
+
+    @Benchmark
+    public Integer zioZipWith() {
+        return RuntimePrograms.runSync(FlatMapPrograms.zipChain(depth));
+    }
+}
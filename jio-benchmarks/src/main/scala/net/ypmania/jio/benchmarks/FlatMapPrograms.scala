@@ -0,0 +1,26 @@
+package net.ypmania.jio.benchmarks
+
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for FlatMapBenchmark and ZipBenchmark. */
+object FlatMapPrograms {
+  def flatMapChain(depth: Int): ZIO[Any, Nothing, Integer] = {
+    var z: ZIO[Any, Nothing, Int] = ZIO.succeed(0)
+    var i = 0
+    while (i < depth) {
+      z = z.flatMap(n => ZIO.succeed(n + 1))
+      i += 1
+    }
+    z.map(Integer.valueOf)
+  }
+
+  def zipChain(depth: Int): ZIO[Any, Nothing, Integer] = {
+    var z: ZIO[Any, Nothing, Int] = ZIO.succeed(0)
+    var i = 0
+    while (i < depth) {
+      z = z.zipWith(ZIO.succeed(1))(_ + _)
+      i += 1
+    }
+    z.map(Integer.valueOf)
+  }
+}
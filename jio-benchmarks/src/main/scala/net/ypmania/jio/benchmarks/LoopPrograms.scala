@@ -0,0 +1,14 @@
+package net.ypmania.jio.benchmarks
+
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for LoopBenchmark. */
+object LoopPrograms {
+  def foldLeft(items: Int): ZIO[Any, Nothing, java.lang.Long] = {
+    ZIO.foldLeft(1 to items)(0L)((sum, i) => ZIO.succeed(sum + i)).map(java.lang.Long.valueOf)
+  }
+
+  def iterate(items: Int): ZIO[Any, Nothing, Integer] = {
+    ZIO.iterate(0)(_ < items)(i => ZIO.succeed(i + 1)).map(Integer.valueOf)
+  }
+}
@@ -0,0 +1,16 @@
+package net.ypmania.jio.benchmarks
+
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for MapBenchmark. */
+object MapPrograms {
+  def mapChain(depth: Int): ZIO[Any, Nothing, Integer] = {
+    var z: ZIO[Any, Nothing, Int] = ZIO.succeed(0)
+    var i = 0
+    while (i < depth) {
+      z = z.map(_ + 1)
+      i += 1
+    }
+    z.map(Integer.valueOf)
+  }
+}
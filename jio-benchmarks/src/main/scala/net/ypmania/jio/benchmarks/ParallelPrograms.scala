@@ -0,0 +1,20 @@
+package net.ypmania.jio.benchmarks
+
+import org.openjdk.jmh.infra.Blackhole
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for ParallelBenchmark. */
+object ParallelPrograms {
+  private def work(i: Int, tokens: Long): ZIO[Any, Nothing, Int] = ZIO.succeed {
+    Blackhole.consumeCPU(tokens)
+    i
+  }
+
+  def foreach(items: Int, tokens: Long): ZIO[Any, Nothing, Integer] = {
+    ZIO.foreach(1 to items)(i => work(i, tokens)).map(is => Integer.valueOf(is.sum))
+  }
+
+  def foreachPar(items: Int, tokens: Long): ZIO[Any, Nothing, Integer] = {
+    ZIO.foreachPar(1 to items)(i => work(i, tokens)).map(is => Integer.valueOf(is.sum))
+  }
+}
@@ -0,0 +1,30 @@
+package net.ypmania.jio.benchmarks
+
+import zio.ZEnvironment
+import zio.ZIO
+import zio.ZLayer
+
+/** Hand-written ZIO counterparts for ProvideBenchmark. */
+object ProvidePrograms {
+  def provideEnvironmentChain(depth: Int): ZIO[Any, Nothing, Integer] = {
+    var z: ZIO[Int, Nothing, Int] = ZIO.service[Int]
+    var i = 0
+    while (i < depth) {
+      z = z.provideSomeEnvironment[Int](env => ZEnvironment(env.get[Int] + 1))
+      i += 1
+    }
+    z.provideEnvironment(ZEnvironment(0)).map(Integer.valueOf)
+  }
+
+  /** The same chain, building a ZLayer for every level the way Dependencies.provide used to. */
+  def provideLayerChain(depth: Int): ZIO[Any, Nothing, Integer] = {
+    var z: ZIO[Int, Nothing, Int] = ZIO.service[Int]
+    var i = 0
+    while (i < depth) {
+      val inner = z
+      z = ZIO.serviceWithZIO[Int](n => inner.provideLayer(ZLayer.succeed(n + 1)))
+      i += 1
+    }
+    z.provideLayer(ZLayer.succeed(0)).map(Integer.valueOf)
+  }
+}
@@ -0,0 +1,13 @@
+package net.ypmania.jio.benchmarks
+
+import zio.Queue
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for QueueBenchmark. */
+object QueuePrograms {
+  def offerTake(items: Int, capacity: Int): ZIO[Any, Nothing, java.lang.Long] = for {
+    queue <- Queue.bounded[Int](capacity)
+    _ <- ZIO.foreachDiscard(0 until items)(queue.offer).fork
+    sum <- ZIO.foldLeft(0 until items)(0L)((sum, _) => queue.take.map(sum + _))
+  } yield java.lang.Long.valueOf(sum)
+}
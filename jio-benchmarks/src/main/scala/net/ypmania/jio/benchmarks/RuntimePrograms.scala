@@ -0,0 +1,24 @@
+package net.ypmania.jio.benchmarks
+
+import java.util.concurrent.CompletableFuture
+import scala.jdk.javaapi.FutureConverters._
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for RuntimeBenchmark. */
+object RuntimePrograms {
+  val succeed: ZIO[Any, Throwable, Integer] = ZIO.succeed(Integer.valueOf(42))
+
+  /** Runs an effect the way JavaRuntime did before it completed the future from the fiber's exit: through a Scala
+    * Future and two converters. */
+  def runThroughScalaFuture[A](z: ZIO[Any, Throwable, A]): CompletableFuture[A] = {
+    zio.Unsafe.unsafe { implicit unsafe =>
+      asJava(zio.Runtime.default.unsafe.runToFuture(z).future).toCompletableFuture()
+    }
+  }
+
+  def runSync[E, A](z: ZIO[Any, E, A]): A = {
+    zio.Unsafe.unsafe { implicit unsafe =>
+      zio.Runtime.default.unsafe.run(z).getOrThrowFiberFailure()
+    }
+  }
+}
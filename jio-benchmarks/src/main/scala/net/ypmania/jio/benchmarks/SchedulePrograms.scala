@@ -0,0 +1,18 @@
+package net.ypmania.jio.benchmarks
+
+import java.util.concurrent.atomic.AtomicInteger
+import zio.Schedule
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for ScheduleBenchmark. */
+object SchedulePrograms {
+  def repeat(times: Int, counter: AtomicInteger): ZIO[Any, Nothing, java.lang.Long] = {
+    ZIO.succeed(counter.incrementAndGet()).repeat(Schedule.recurs(times)).map(java.lang.Long.valueOf)
+  }
+
+  def retry(times: Int, counter: AtomicInteger): ZIO[Any, Nothing, Integer] = {
+    ZIO.succeed(counter.incrementAndGet()).flatMap(_ => ZIO.fail("failed"))
+      .retry(Schedule.recurs(times))
+      .catchAll(_ => ZIO.succeed(Integer.valueOf(counter.get())))
+  }
+}
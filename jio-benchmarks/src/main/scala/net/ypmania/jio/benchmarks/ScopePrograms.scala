@@ -0,0 +1,18 @@
+package net.ypmania.jio.benchmarks
+
+import java.util.concurrent.atomic.AtomicInteger
+import zio.ZIO
+
+/** Hand-written ZIO counterparts for ScopeBenchmark. */
+object ScopePrograms {
+  def acquireRelease(resources: Int, counter: AtomicInteger): ZIO[Any, Nothing, Integer] = {
+    val resource = ZIO.acquireRelease(ZIO.succeed(counter.incrementAndGet()))(_ => ZIO.succeed(counter.decrementAndGet()))
+    ZIO.scoped(ZIO.foldLeft(1 to resources)(0)((sum, _) => resource.map(sum + _))).map(Integer.valueOf)
+  }
+
+  def scopedWith(counter: AtomicInteger): ZIO[Any, Nothing, Integer] = {
+    ZIO.scopedWith(scope =>
+      scope.addFinalizer(ZIO.succeed(counter.decrementAndGet())).as(Integer.valueOf(counter.incrementAndGet()))
+    )
+  }
+}
@@ -0,0 +1,106 @@
+package net.ypmania.jio;
+
+import java.util.Optional;
+
+import net.ypmania.ziojava.Concurrents;
+
+/** Limits how many effects run at the same time, e.g. to keep a slow dependency from tying up all fibers. Effects beyond
+    the limit wait (without blocking a thread) until a running one completes, in the order in which they arrived.
+*/
+public class Bulkhead {
+    /** Returns a bulkhead that runs at most [maxConcurrent] effects at the same time. */
+    public static UJIO<Object, Bulkhead> make(int maxConcurrent) {
+        return Semaphore.make(maxConcurrent).map(semaphore -> new Bulkhead(semaphore, maxConcurrent));
+    }
+
+    private final Semaphore semaphore;
+    private final int maxConcurrent;
+    /** Number of effects that are running or waiting to run. Guarded by synchronizing on this. */
+    private int admitted = 0;
+    private int running = 0;
+    private long rejected = 0;
+
+    private Bulkhead(Semaphore semaphore, int maxConcurrent) {
+        this.semaphore = semaphore;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /** Returns an effect that runs [jio], waiting for its turn first. */
+    public <R,E,A> JIO<R,E,A> run(JIO<? super R, ? extends E, ? extends A> jio) {
+        var permitted = JIO.<R,E,A>cast(semaphore.withPermit(track(JIO.<R,E,A>cast(jio))));
+        return new JIO<>(Concurrents.guarded(this::admit, permitted.zio, permitted.zio, this::leave));
+    }
+
+    /** Returns an effect that runs [jio], waiting for its turn first. */
+    public <R,A> UJIO<R,A> runU(UJIO<? super R, ? extends A> jio) {
+        var permitted = JIO.<R,A>cast(semaphore.withPermitU(trackU(JIO.<R,A>cast(jio))));
+        return new UJIO<>(Concurrents.guarded(this::admit, permitted.zio, permitted.zio, this::leave));
+    }
+
+    /** Returns an effect that runs [jio] if it can start right away, or returns an empty Optional if all permits are
+     * taken. */
+    public <R,E,A> JIO<R,E,Optional<A>> tryRun(JIO<? super R, ? extends E, ? extends A> jio) {
+        var permitted = semaphore.withPermit(track(JIO.<R,E,A>cast(jio))).<Optional<A>>map(Optional::of);
+        return new JIO<>(Concurrents.guarded(this::tryAdmit, permitted.zio, JIO.<Optional<A>>succeed(Optional.empty()).<E>toJIO().zio, this::leave));
+    }
+
+    /** Returns an effect that runs [jio] if it can start right away, or returns an empty Optional if all permits are
+     * taken. */
+    public <R,A> UJIO<R,Optional<A>> tryRunU(UJIO<? super R, ? extends A> jio) {
+        var permitted = semaphore.withPermitU(trackU(JIO.<R,A>cast(jio))).<Optional<A>>map(Optional::of);
+        return new UJIO<>(Concurrents.guarded(this::tryAdmit, permitted.zio, JIO.<Optional<A>>succeed(Optional.empty()).zio, this::leave));
+    }
+
+    /** Returns a snapshot of the bulkhead's usage so far. */
+    public UJIO<Object,Stats> stats() {
+        return JIO.succeedWith(() -> {
+            synchronized (this) {
+                return new Stats(running, admitted - running, rejected);
+            }
+        });
+    }
+
+    /** Usage of a bulkhead.
+        @param running Number of effects that are currently running
+        @param waiting Number of effects that are currently waiting for their turn
+        @param rejected Number of effects that tryRun() did not run
+    */
+    public record Stats(int running, int waiting, long rejected) {}
+
+    private synchronized boolean admit() {
+        admitted++;
+        return true;
+    }
+
+    /** Admits only if there are no waiting effects, and a permit is free. Every admitted effect either holds a permit or
+     * is waiting for one, so fewer than maxConcurrent admitted effects means both. */
+    private synchronized boolean tryAdmit() {
+        if (admitted < maxConcurrent) {
+            admitted++;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    private synchronized void leave() {
+        admitted--;
+    }
+
+    private synchronized boolean start() {
+        running++;
+        return true;
+    }
+
+    private synchronized void finish() {
+        running--;
+    }
+
+    private <R,E,A> JIO<R,E,A> track(JIO<R,E,A> jio) {
+        return new JIO<>(Concurrents.guarded(this::start, jio.zio, jio.zio, this::finish));
+    }
+
+    private <R,A> UJIO<R,A> trackU(UJIO<R,A> jio) {
+        return new UJIO<>(Concurrents.guarded(this::start, jio.zio, jio.zio, this::finish));
+    }
+}
@@ -0,0 +1,134 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+
+import net.ypmania.ziojava.Clocks;
+
+/** Remembers the results of looking up keys, so each key is looked up at most once per [timeToLive]. Concurrent gets
+    for the same key share a single lookup. When more than [capacity] keys are cached, the least recently used one is
+    evicted. Lookups that fail or die are not remembered.
+    @param K The type of the keys.
+    @param E The result of a lookup failing.
+    @param V The result of a lookup succeeding.
+*/
+public class Cache<K,E,V> {
+    /** Returns a cache that looks up keys through [lookup]. The lookups run with the environment of the returned UJIO. */
+    public static <K,R,E,V> UJIO<R, Cache<K,E,V>> make(int capacity, Duration timeToLive, Function<? super K, JIO<? super R, ? extends E, ? extends V>> lookup) {
+        return JIO.<R>environment().map(env ->
+            new Cache<K,E,V>(capacity, timeToLive, key -> JIO.<R,E,V>cast(lookup.apply(key)).provide(env))
+        );
+    }
+
+    private final int capacity;
+    private final Duration timeToLive;
+    private final Function<K, JIO<Object,E,V>> lookup;
+    /** In order of access, least recently used first. Guarded by synchronizing on this. */
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private Cache(int capacity, Duration timeToLive, Function<K, JIO<Object,E,V>> lookup) {
+        this.capacity = capacity;
+        this.timeToLive = timeToLive;
+        this.lookup = lookup;
+    }
+
+    /** Returns the cached value for [key], looking it up if it isn't cached or has expired. */
+    public JIO<Object,E,V> get(K key) {
+        // Claiming the key and starting its lookup can't be interrupted, or a claimed entry would never be looked up.
+        return JIO.wrapU(Clocks.instant()).<Entry>flatMapU(now -> {
+            var claim = claim(key, now);
+            return claim.created() ? load(key, claim.entry()).as(claim.entry()) : JIO.succeed(claim.entry());
+        }).uninterruptible().<V,E>flatMap(entry -> entry.promise.await());
+    }
+
+    /** Forgets the cached value for [key], if any. */
+    public UJIO<Object,Object> invalidate(K key) {
+        return JIO.succeedWith(() -> {
+            synchronized (this) {
+                entries.remove(key);
+            }
+        });
+    }
+
+    /** Forgets all cached values. */
+    public UJIO<Object,Object> invalidateAll() {
+        return JIO.succeedWith(() -> {
+            synchronized (this) {
+                entries.clear();
+            }
+        });
+    }
+
+    /** Returns a snapshot of the cache's usage so far. */
+    public UJIO<Object,Stats> stats() {
+        return JIO.succeedWith(() -> {
+            synchronized (this) {
+                return new Stats(hits, misses, evictions, entries.size());
+            }
+        });
+    }
+
+    /** Usage of a cache.
+        @param hits Number of gets that found a cached (or pending) value
+        @param misses Number of gets that had to look up their key
+        @param evictions Number of keys that were forgotten to stay within the capacity
+        @param size Number of keys currently cached
+    */
+    public record Stats(long hits, long misses, long evictions, int size) {}
+
+    private final class Entry {
+        final Promise<E,V> promise = Promise.unsafeMake();
+        /** When the value expires, or null while it's being looked up. */
+        volatile Instant expires = null;
+    }
+
+    /** @param created Whether the entry is new, so the get that claimed it should look it up. */
+    private record Claim<T>(T entry, boolean created) {}
+
+    /** Returns the current entry for [key], or a new one if there is none, or it has expired. */
+    private synchronized Claim<Entry> claim(K key, Instant now) {
+        var entry = entries.get(key);
+        if (entry != null) {
+            var expires = entry.expires;
+            if (expires == null || now.isBefore(expires)) {
+                hits++;
+                return new Claim<>(entry, false);
+            }
+        }
+        misses++;
+        var created = new Entry();
+        entries.put(key, created);
+        if (entries.size() > capacity) {
+            var eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+        return new Claim<>(created, true);
+    }
+
+    private synchronized void remove(K key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    /** Starts looking up [key] into [entry]. The lookup runs on a daemon fiber, so interrupting the get that started it
+     * does not interrupt other gets waiting for the same key. Unless the lookup succeeds, the entry is removed again, since an
+     * entry without an expiry would otherwise count as being looked up forever. */
+    private UJIO<Object,Object> load(K key, Entry entry) {
+        var loaded = lookup.apply(key)
+            .flatMapU(v -> JIO.wrapU(Clocks.instant()).flatMapU(now -> JIO.succeedWith(() -> {
+                entry.expires = now.plus(timeToLive);
+            })).as(v))
+            .ensuring(JIO.succeedWith(() -> {
+                if (entry.expires == null) {
+                    remove(key, entry);
+                }
+            }));
+        return entry.promise.complete(loaded).forkDaemon().as(null);
+    }
+}
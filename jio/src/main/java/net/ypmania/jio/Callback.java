@@ -0,0 +1,14 @@
+package net.ypmania.jio;
+
+/** Completes an effect created by JIO.async or JIO.asyncInterrupt. Only the first call has any effect.
+    @param E The result of the effect failing.
+    @param A The result of the effect succeeding.
+*/
+public interface Callback<E,A> {
+    void succeed(A value);
+
+    void fail(E error);
+
+    /** Fails the effect with a defect, i.e. an unexpected error rather than one of type E. */
+    void die(Throwable defect);
+}
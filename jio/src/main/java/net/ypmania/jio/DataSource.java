@@ -0,0 +1,105 @@
+package net.ypmania.jio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/** Looks up keys in batches, to turn many small lookups (e.g. one per node of a graph) into a few large ones. Lookups
+    that are requested by different fibers at about the same time, e.g. by the effects of one foreachPar, are collected
+    into a single call of [batchLoad]. Every key is looked up only once: later requests for the same key get the outcome
+    of the first one, so make a new data source for every run that should see fresh data.
+    <p>
+    Batching is best-effort: a batch is dispatched once its keys stop growing while the dispatching fiber yields. On a
+    single-threaded runtime, that means all fibers that were ready to run have made their requests. With more threads,
+    a fiber that is still on its way to its request can end up in the next batch instead, which only costs an extra
+    call of [batchLoad].
+    @param R The environment that [batchLoad] needs.
+    @param E The result of [batchLoad] failing. All requests of the failed batch fail with it.
+    @param K The type of the keys.
+    @param V The type of the values.
+*/
+public class DataSource<R,E,K,V> {
+    /** Returns a data source that looks up keys through [batchLoad]. Keys that are missing from its result are not found. */
+    public static <R,E,K,V> UJIO<Object, DataSource<R,E,K,V>> make(Function<List<K>, JIO<? super R, ? extends E, ? extends Map<K,V>>> batchLoad) {
+        return JIO.succeedWith(() -> new DataSource<>(batchLoad));
+    }
+
+    private final Function<List<K>, JIO<? super R, ? extends E, ? extends Map<K,V>>> batchLoad;
+    /** The outcome of every key requested so far. Guarded by synchronizing on this. */
+    private final Map<K, Promise<E,Optional<V>>> requested = new HashMap<>();
+    /** Keys that have been requested, but not yet passed to batchLoad. Guarded by synchronizing on this. */
+    private List<K> pending = new ArrayList<>();
+
+    private DataSource(Function<List<K>, JIO<? super R, ? extends E, ? extends Map<K,V>>> batchLoad) {
+        this.batchLoad = batchLoad;
+    }
+
+    /** Looks up [key], batching it with the lookups of other fibers. Returns an empty Optional if [key] was not found. */
+    public JIO<R,E,Optional<V>> request(K key) {
+        // Registering the key and starting its batch's dispatch can't be interrupted, or the batch's keys would never load.
+        return JIO.<R,Promise<E,Optional<V>>>cast(Promise.<E,Optional<V>>make()).<Promise<E,Optional<V>>>flatMapU(promise -> {
+            var claim = claim(key, promise);
+            if (claim.first()) {
+                return dispatch(1).uninterruptible().forkDaemon().as(claim.promise());
+            } else {
+                return JIO.succeed(claim.promise());
+            }
+        }).uninterruptible().<Optional<V>,E>flatMap(Promise::await);
+    }
+
+    /** @param first Whether the key is the first one of a new batch, whose request should dispatch it. */
+    private record Claim<E,V>(Promise<E,Optional<V>> promise, boolean first) {}
+
+    /** Returns the promise for [key], registering [promise] for it if it hasn't been requested before. */
+    private synchronized Claim<E,V> claim(K key, Promise<E,Optional<V>> promise) {
+        var existing = requested.putIfAbsent(key, promise);
+        if (existing != null) {
+            return new Claim<>(existing, false);
+        }
+        pending.add(key);
+        return new Claim<>(promise, pending.size() == 1);
+    }
+
+    private synchronized int pendingSize() {
+        return pending.size();
+    }
+
+    private synchronized List<K> takePending() {
+        var keys = pending;
+        pending = new ArrayList<>();
+        return keys;
+    }
+
+    /** Lets other fibers run until they stop adding keys, and then loads all pending keys. Requests run this on an
+     * uninterruptible daemon fiber, so interrupting the request that started it does not interrupt the other requests
+     * waiting for it, and every key it takes gets its promise completed. */
+    private UJIO<R,Object> dispatch(int seen) {
+        return JIO.<R,Object>cast(JIO.yieldNow()).<Object>flatMapU(u -> {
+            int size = pendingSize();
+            if (size != seen) {
+                return dispatch(size);
+            }
+            return load(takePending());
+        });
+    }
+
+    /** Completes the promises of [keys] with the outcome of one call of batchLoad, including it throwing or dying. */
+    private UJIO<R,Object> load(List<K> keys) {
+        var loaded = JIO.<R>environment().<Map<K,V>,E>flatMap(env -> JIO.<R,E,Map<K,V>>cast(batchLoad.apply(List.copyOf(keys))));
+        return JIO.<R,JIO<R,E,Map<K,V>>>cast(loaded.memoize()).flatMapU(batch -> {
+            UJIO<R,Object> all = JIO.cast(JIO.empty());
+            for (var key: keys) {
+                var promise = promiseFor(key);
+                all = all.<Object>flatMapU(u -> promise.complete(batch.map(found -> Optional.ofNullable(found.get(key)))));
+            }
+            return all;
+        });
+    }
+
+    private synchronized Promise<E,Optional<V>> promiseFor(K key) {
+        return requested.get(key);
+    }
+}
@@ -0,0 +1,25 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import net.ypmania.ziojava.Clocks;
+
+/** A point in time by which an effect (e.g. handling a request) should have completed. Use JIO.timeoutFail() to fail
+ * an effect that passes its deadline. */
+public record Deadline(Instant instant) {
+    /** Returns a deadline that is the given duration from now. */
+    public static UJIO<Object, Deadline> after(Duration duration) {
+        return JIO.wrapU(Clocks.instant()).map(now -> new Deadline(now.plus(duration)));
+    }
+
+    /** Returns the time left until the deadline, or zero if it has passed. */
+    public UJIO<Object, Duration> remaining() {
+        return JIO.wrapU(Clocks.instant()).map(now -> now.isBefore(instant) ? Duration.between(now, instant) : Duration.ZERO);
+    }
+
+    /** Implemented by environments that carry a deadline. */
+    public interface Has {
+        Deadline deadline();
+    }
+}
@@ -0,0 +1,51 @@
+package net.ypmania.jio;
+
+import java.util.List;
+import java.util.Optional;
+
+import net.ypmania.ziojava.Concurrents;
+import scala.Option;
+import scala.jdk.javaapi.OptionConverters;
+
+/** The receiving side of a Queue, or a subscription to a Hub. Waiting for elements suspends the fiber, rather than
+ * blocking a thread.
+    @param A The type of the elements.
+*/
+public class Dequeue<A> {
+    final zio.Dequeue<A> dequeue;
+
+    Dequeue(zio.Dequeue<A> dequeue) {
+        this.dequeue = dequeue;
+    }
+
+    /** Takes the oldest element, waiting for one if there are none. */
+    public UJIO<Object, A> take() {
+        return JIO.wrapU(dequeue.take(Tracing.trace()));
+    }
+
+    /** Takes up to [max] elements that are currently available, without waiting. This amortizes the cost of synchronization
+     * over many elements. */
+    public UJIO<Object, List<A>> takeUpTo(int max) {
+        return JIO.wrapU(Concurrents.toList(dequeue.takeUpTo(max, Tracing.trace())));
+    }
+
+    /** Takes all elements that are currently available, without waiting. */
+    public UJIO<Object, List<A>> takeAll() {
+        return JIO.wrapU(Concurrents.toList(dequeue.takeAll(Tracing.trace())));
+    }
+
+    /** Takes the oldest element if there is one, without waiting. */
+    public UJIO<Object, Optional<A>> poll() {
+        return JIO.<Option<A>>wrapU(dequeue.poll(Tracing.trace())).map(OptionConverters::toJava);
+    }
+
+    /** Returns the number of elements waiting to be taken. */
+    public UJIO<Object, Integer> size() {
+        return JIO.wrapU(Concurrents.toInteger(dequeue.size(Tracing.trace())));
+    }
+
+    /** Shuts down the queue, interrupting any fibers waiting to take or offer. */
+    public UJIO<Object, Object> shutdown() {
+        return JIO.wrapU(dequeue.shutdown(Tracing.trace()));
+    }
+}
@@ -0,0 +1,26 @@
+package net.ypmania.jio;
+
+import net.ypmania.ziojava.Exits;
+
+/** How an effect ended.
+    @param E The type of failure of the effect.
+    @param A The type of success of the effect.
+*/
+public sealed interface Exit<E,A> {
+    /** Converts the exit of a ZIO effect. */
+    public static <E,A> Exit<E,A> wrap(zio.Exit<E,A> exit) {
+        return Exits.<E,A,Exit<E,A>>fold(exit, Success::new, Failure::new, Die::new, Interrupted::new);
+    }
+
+    /** The effect succeeded with a value. */
+    public record Success<E,A>(A value) implements Exit<E,A> {}
+
+    /** The effect failed with an error. */
+    public record Failure<E,A>(E error) implements Exit<E,A> {}
+
+    /** The effect failed with an unexpected exception, which is not part of its error type. */
+    public record Die<E,A>(Throwable defect) implements Exit<E,A> {}
+
+    /** The effect was interrupted before it could complete. */
+    public record Interrupted<E,A>() implements Exit<E,A> {}
+}
@@ -0,0 +1,35 @@
+package net.ypmania.jio;
+
+/** Completes a future (or is thrown) when an effect fails with an error that isn't a Throwable. It has no stack trace,
+    since the error says what went wrong, and filling one in dominates the cost of failing when many effects fail (e.g.
+    on validation errors). Its message is only built when asked for. */
+public class FailureException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    /** Not serialized, since errors needn't be Serializable. */
+    private final transient Object error;
+
+    public FailureException(Object error) {
+        this.error = error;
+    }
+
+    /** Returns the error that the effect failed with. */
+    public Object error() {
+        return error;
+    }
+
+    /** Returns the error that the effect failed with, as the given type. */
+    public <E> E error(Class<E> type) {
+        return type.cast(error);
+    }
+
+    @Override
+    public String getMessage() {
+        return "JIO failed unexpectedly with " + error;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+package net.ypmania.jio;
+
+
+/** An effect that is running in the background, started by JIO.fork().
+    @param E The result of the effect failing.
+    @param A The result of the effect succeeding.
+*/
+public class Fiber<E,A> {
+    private final zio.Fiber<E,A> fiber;
+
+    Fiber(zio.Fiber<E,A> fiber) {
+        this.fiber = fiber;
+    }
+
+    /** Waits for the fiber to complete, succeeding or failing the way the fiber did. */
+    public JIO<Object,E,A> join() {
+        return JIO.wrap(fiber.join(Tracing.trace()));
+    }
+
+    /** Waits for the fiber to complete, returning how it ended. */
+    public UJIO<Object,Exit<E,A>> await() {
+        return JIO.wrapU(fiber.await(Tracing.trace())).map(Exit::wrap);
+    }
+
+    /** Interrupts the fiber, and waits for it to end (including running its finalizers). */
+    public UJIO<Object,Exit<E,A>> interrupt() {
+        return JIO.wrapU(fiber.interrupt(Tracing.trace())).map(Exit::wrap);
+    }
+
+    /** Interrupts the fiber in the background, without waiting for it to end. */
+    public UJIO<Object,Object> interruptFork() {
+        return JIO.wrapU(fiber.interruptFork(Tracing.trace()));
+    }
+}
@@ -0,0 +1,56 @@
+package net.ypmania.jio;
+
+import java.util.List;
+
+import net.ypmania.ziojava.Concurrents;
+
+/** Broadcasts every published element to all current subscribers.
+    @param A The type of the elements.
+*/
+public class Hub<A> {
+    /** Returns a hub that buffers at most [capacity] elements, suspending publishers while a subscriber lags behind. */
+    public static <A> UJIO<Object, Hub<A>> bounded(int capacity) {
+        return JIO.wrapU(Concurrents.<A>boundedHub(capacity)).map(Hub::new);
+    }
+
+    /** Returns a hub that buffers at most [capacity] elements, rejecting new elements while a subscriber lags behind. */
+    public static <A> UJIO<Object, Hub<A>> dropping(int capacity) {
+        return JIO.wrapU(Concurrents.<A>droppingHub(capacity)).map(Hub::new);
+    }
+
+    /** Returns a hub that buffers at most [capacity] elements, discarding the oldest elements while a subscriber lags behind. */
+    public static <A> UJIO<Object, Hub<A>> sliding(int capacity) {
+        return JIO.wrapU(Concurrents.<A>slidingHub(capacity)).map(Hub::new);
+    }
+
+    /** Returns a hub without a buffer limit. */
+    public static <A> UJIO<Object, Hub<A>> unbounded() {
+        return JIO.wrapU(Concurrents.<A>unboundedHub()).map(Hub::new);
+    }
+
+    private final zio.Hub<A> hub;
+
+    Hub(zio.Hub<A> hub) {
+        this.hub = hub;
+    }
+
+    /** Publishes an element to all subscribers, returning whether it was accepted. */
+    public UJIO<Object, Boolean> publish(A value) {
+        return JIO.wrapU(Concurrents.toBoolean(hub.publish(value, Tracing.trace())));
+    }
+
+    /** Publishes all elements to all subscribers, returning the ones that were not accepted. */
+    public UJIO<Object, List<A>> publishAll(Iterable<? extends A> values) {
+        return JIO.wrapU(Concurrents.publishAll(hub, values));
+    }
+
+    /** Subscribes to the hub until the Scope closes. The subscription receives elements published after this call. */
+    public UJIO<Scope, Dequeue<A>> subscribe() {
+        return JIO.<Scope>environment().flatMapU(scope -> JIO.wrapU(Concurrents.subscribe(hub, scope.zioScope))).map(Dequeue::new);
+    }
+
+    /** Shuts down the hub, ending all subscriptions. */
+    public UJIO<Object, Object> shutdown() {
+        return JIO.wrapU(hub.shutdown(Tracing.trace()));
+    }
+}
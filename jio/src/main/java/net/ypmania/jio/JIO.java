@@ -1,14 +1,38 @@
 package net.ypmania.jio;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 
 import net.ypmania.jio.function.CheckedFunction0;
 import net.ypmania.jio.function.CheckedRunnable;
+import net.ypmania.jio.metrics.Counter;
+import net.ypmania.jio.metrics.Histogram;
 import net.ypmania.jio.tuple.Tuple;
 import net.ypmania.jio.tuple.Tuple2;
+import net.ypmania.jio.tuple.Tuple3;
+import net.ypmania.jio.tuple.Tuple4;
 import net.ypmania.ziojava.Dependencies;
+import net.ypmania.ziojava.Effects;
+import net.ypmania.ziojava.Instruments;
+import net.ypmania.ziojava.Iterables;
+import net.ypmania.ziojava.Zips;
+import scala.Function1;
+import scala.Option;
+import scala.jdk.javaapi.OptionConverters;
+import scala.runtime.BoxedUnit;
 import scala.runtime.Nothing$;
 import zio.Trace;
 import zio.ZIO;
@@ -32,22 +56,37 @@ public class JIO<R,E,A> {
     }
 
     public static <A> UJIO<Object, A> succeedWith(Supplier<A> fn) {
-        return wrapU(ZIO.succeed(u -> fn.get(), Trace.empty()));
+        return wrapU(ZIO.succeed(u -> fn.get(), Tracing.trace(fn)));
     }
 
     public static UJIO<Object, Object> succeedWith(Runnable fn) {
         return wrapU(ZIO.succeed(u -> {
             fn.run();
             return null;
-        }, Trace.empty()));
+        }, Tracing.trace(fn)));
+    }
+
+    /** Returns an effect that never completes (unless it is interrupted). */
+    public static <A> UJIO<Object, A> never() {
+        return wrapU(ZIO.never(Tracing.trace())).<A>unsafeCast();
+    }
+
+    /** Returns an effect that completes after the given duration, without blocking a thread while waiting. */
+    public static UJIO<Object, Object> sleep(Duration duration) {
+        return wrapU(ZIO.sleep(() -> duration, Tracing.trace()));
+    }
+
+    /** Returns an effect that lets other fibers run before it completes. */
+    public static UJIO<Object, Object> yieldNow() {
+        return wrapU(ZIO.yieldNow(Tracing.trace()));
     }
 
     public static <E,A> JIO<Object,E,A> fail(E failure) {
-        return wrap(ZIO.fail(() -> failure, Trace.empty())).<A>unsafeCast();
+        return wrap(ZIO.fail(() -> failure, Tracing.trace())).<A>unsafeCast();
     }
 
     public static <E,A> JIO<Object,E,A> failWith(Supplier<E> failure) {
-        return wrap(ZIO.fail(() -> failure.get(), Trace.empty())).<A>unsafeCast();
+        return wrap(ZIO.fail(() -> failure.get(), Tracing.trace())).<A>unsafeCast();
     }
 
     public static <A> UJIO<Object, A> wrapU(ZIO<Object, Nothing$, ? extends A> zio) {
@@ -58,6 +97,18 @@ public class JIO<R,E,A> {
         return new JIO<Object, E, A>(Dependencies.wrap(zio));
     }
 
+    /** Returns the effect that [build] makes from the trace of the code calling into JIO (see Tracing). JIO's other
+     * packages (e.g. net.ypmania.jio.stm) use this to trace the ZIO effects that they wrap. */
+    public static <R,E,A> JIO<R,E,A> traced(Function<Object, JIO<R,E,A>> build) {
+        return build.apply(Tracing.trace());
+    }
+
+    /** Returns the effect that [build] makes from the trace of the code calling into JIO (see Tracing). JIO's other
+     * packages (e.g. net.ypmania.jio.stm) use this to trace the ZIO effects that they wrap. */
+    public static <R,A> UJIO<R,A> tracedU(Function<Object, UJIO<R,A>> build) {
+        return build.apply(Tracing.trace());
+    }
+
     public static <A> ZIO<Object,Nothing$,A> unwrap(UJIO<Object,A> jio) {
         return Dependencies.unsafeUnwrap(jio.zio);
     }
@@ -67,14 +118,76 @@ public class JIO<R,E,A> {
     }
 
     public static <A, X extends Throwable> JIO<Object, X, A> attempt(CheckedFunction0<? extends A, ? extends X> fn) {
-        return wrap(ZIO.attempt(u -> fn.unchecked().get(), Trace.empty())).<A>unsafeCast().<X>unsafeCastError();
+        return wrap(ZIO.attempt(u -> fn.unchecked().get(), Tracing.trace(fn))).<A>unsafeCast().<X>unsafeCastError();
     }
 
     public static <X extends Throwable> JIO<Object, X, Object> attempt(CheckedRunnable<? extends X> fn) {
         return wrap(ZIO.attempt(u -> {
             fn.unchecked().run();
             return null;
-        }, Trace.empty())).<Object>unsafeCast().<X>unsafeCastError();
+        }, Tracing.trace(fn))).<Object>unsafeCast().<X>unsafeCastError();
+    }
+
+    /** Like attempt(), but runs [fn] on ZIO's blocking thread pool, so that blocking I/O does not hold up one of the
+     * threads that run effects. */
+    public static <A, X extends Throwable> JIO<Object, X, A> attemptBlocking(CheckedFunction0<? extends A, ? extends X> fn) {
+        return wrap(ZIO.attemptBlocking(u -> fn.unchecked().get(), Tracing.trace(fn))).<A>unsafeCast().<X>unsafeCastError();
+    }
+
+    /** Like attempt(), but runs [fn] on ZIO's blocking thread pool, so that blocking I/O does not hold up one of the
+     * threads that run effects. */
+    public static <X extends Throwable> JIO<Object, X, Object> attemptBlocking(CheckedRunnable<? extends X> fn) {
+        return wrap(ZIO.attemptBlocking(u -> {
+            fn.unchecked().run();
+            return null;
+        }, Tracing.trace(fn))).<Object>unsafeCast().<X>unsafeCastError();
+    }
+
+    /** Returns an effect that calls [register] when it runs, and then waits (without blocking a thread) until the Callback
+     * given to [register] is invoked, e.g. by a callback-based client library. */
+    public static <E,A> JIO<Object,E,A> async(Consumer<Callback<E,A>> register) {
+        return wrap(Effects.<E,A,Callback<E,A>>async(JIO::callback, register));
+    }
+
+    /** Like async(), but [register] returns a Runnable that cancels the operation (or null if it can't be cancelled). That
+     * Runnable is run if the effect is interrupted while it waits. */
+    public static <E,A> JIO<Object,E,A> asyncInterrupt(Function<Callback<E,A>, Runnable> register) {
+        return wrap(Effects.<E,A,Callback<E,A>>asyncInterrupt(JIO::callback, register));
+    }
+
+    /** Returns an effect that calls [start] when it runs, and then waits (without blocking a thread) for the returned stage
+     * to complete. If the effect is interrupted, the stage is cancelled, which stops it if it's a CompletableFuture. */
+    public static <A> JIO<Object, Throwable, A> fromCompletionStage(Supplier<? extends CompletionStage<? extends A>> start) {
+        return JIO.<Throwable,A>asyncInterrupt(cb -> {
+            var future = start.get().toCompletableFuture();
+            future.whenComplete((a, x) -> {
+                if (x == null) {
+                    cb.succeed(a);
+                } else {
+                    cb.fail((x instanceof CompletionException && x.getCause() != null) ? x.getCause() : x);
+                }
+            });
+            return () -> future.cancel(true);
+        });
+    }
+
+    private static <E,A> Callback<E,A> callback(Function1<A,BoxedUnit> succeed, Function1<E,BoxedUnit> fail, Function1<Throwable,BoxedUnit> die) {
+        return new Callback<>() {
+            @Override
+            public void succeed(A value) {
+                succeed.apply(value);
+            }
+
+            @Override
+            public void fail(E error) {
+                fail.apply(error);
+            }
+
+            @Override
+            public void die(Throwable defect) {
+                die.apply(defect);
+            }
+        };
     }
 
     /** Casts the given JIO to a less-specific generic type. */
@@ -93,7 +206,130 @@ public class JIO<R,E,A> {
     /** Runs another effect with the result of this one. This is functionally equivalent to this.flatMap(fn), but the static
      * variant has a more flexible combination of error and environment types in the Java language. */
     public static <R,E,A,I> JIO<R,E,A> flatMap(JIO<? super R, ? extends E, I> jio, Function<? super I, JIO<? super R, ? extends E, ? extends A>> fn) {
-        return new JIO<>(jio.zio.flatMap(a -> fn.apply(a).zio, Trace.empty()));
+        return new JIO<>(jio.zio.flatMap(a -> fn.apply(a).zio, Tracing.trace(fn)));
+    }
+
+    /** Looks up [key] in [dataSource], batching it with the lookups of other fibers (e.g. of the same foreachPar). Returns
+     * an empty Optional if the data source didn't find the key. */
+    public static <R,E,K,V> JIO<R,E,Optional<V>> request(K key, DataSource<R,E,K,V> dataSource) {
+        return dataSource.request(key);
+    }
+
+    /** Runs an effect for every element, one after the other, returning the results in the order of the elements. Stops
+     * at the first failure. */
+    public static <R,E,A,B> JIO<R,E,List<B>> foreach(Iterable<? extends A> as, Function<? super A, JIO<? super R, ? extends E, ? extends B>> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A,B>foreach(as, a -> JIO.<R,E,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs an effect for every element, one after the other, returning the results in the order of the elements. */
+    public static <R,A,B> UJIO<R,List<B>> foreachU(Iterable<? extends A> as, Function<? super A, UJIO<? super R, ? extends B>> fn) {
+        return new UJIO<>(Iterables.<Dependencies,Nothing$,A,B>foreach(as, a -> JIO.<R,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs an effect for every element, one after the other, ignoring the results. Unlike foreach(), this doesn't collect
+     * a list, and [as] is iterated lazily, so it can be larger than would fit in memory. Stops at the first failure. */
+    public static <R,E,A> JIO<R,E,Object> foreachDiscard(Iterable<? extends A> as, Function<? super A, JIO<? super R, ? extends E, ?>> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A>foreachDiscard(as, a -> JIO.<R,E,Object>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs an effect for every element, one after the other, ignoring the results. Unlike foreachU(), this doesn't collect
+     * a list, and [as] is iterated lazily, so it can be larger than would fit in memory. */
+    public static <R,A> UJIO<R,Object> foreachDiscardU(Iterable<? extends A> as, Function<? super A, UJIO<? super R, ?>> fn) {
+        return new UJIO<>(Iterables.<Dependencies,Nothing$,A>foreachDiscard(as, a -> JIO.<R,Object>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs [body] for every state from [initial] (updated through [step]) for as long as [cont] holds, returning the
+     * results. This is like a for loop, but without building an effect for every iteration up front. */
+    public static <R,E,S,A> JIO<R,E,List<A>> loop(S initial, Predicate<? super S> cont, UnaryOperator<S> step, Function<? super S, JIO<? super R, ? extends E, ? extends A>> body) {
+        return new JIO<>(Iterables.<Dependencies,E,A,S>loop(initial, s -> cont.test(s), s -> step.apply(s), s -> JIO.<R,E,A>cast(body.apply(s)).zio));
+    }
+
+    /** Runs [body] for every state from [initial] (updated through [step]) for as long as [cont] holds, returning the
+     * results. This is like a for loop, but without building an effect for every iteration up front. */
+    public static <R,S,A> UJIO<R,List<A>> loopU(S initial, Predicate<? super S> cont, UnaryOperator<S> step, Function<? super S, UJIO<? super R, ? extends A>> body) {
+        return new UJIO<>(Iterables.<Dependencies,Nothing$,A,S>loop(initial, s -> cont.test(s), s -> step.apply(s), s -> JIO.<R,A>cast(body.apply(s)).zio));
+    }
+
+    /** Runs [body] on [initial], and then again on its result, for as long as [cont] holds. Returns the first state
+     * for which [cont] doesn't hold. */
+    public static <R,E,S> JIO<R,E,S> iterate(S initial, Predicate<? super S> cont, Function<? super S, JIO<? super R, ? extends E, ? extends S>> body) {
+        return new JIO<>(ZIO.iterate(() -> initial, s -> cont.test(s), s -> JIO.<R,E,S>cast(body.apply(s)).zio, Tracing.trace(body)));
+    }
+
+    /** Runs [body] on [initial], and then again on its result, for as long as [cont] holds. Returns the first state
+     * for which [cont] doesn't hold. */
+    public static <R,S> UJIO<R,S> iterateU(S initial, Predicate<? super S> cont, Function<? super S, UJIO<? super R, ? extends S>> body) {
+        return new UJIO<>(ZIO.iterate(() -> initial, s -> cont.test(s), s -> JIO.<R,S>cast(body.apply(s)).zio, Tracing.trace(body)));
+    }
+
+    /** Combines all elements into a state, starting with [zero], one element after the other. Stops at the first
+     * failure. */
+    public static <R,E,A,S> JIO<R,E,S> foldLeft(Iterable<? extends A> as, S zero, BiFunction<? super S, ? super A, JIO<? super R, ? extends E, ? extends S>> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A,S>foldLeft(as, zero, (s, a) -> JIO.<R,E,S>cast(fn.apply(s, a)).zio));
+    }
+
+    /** Combines all elements into a state, starting with [zero], one element after the other. */
+    public static <R,A,S> UJIO<R,S> foldLeftU(Iterable<? extends A> as, S zero, BiFunction<? super S, ? super A, UJIO<? super R, ? extends S>> fn) {
+        return new UJIO<>(Iterables.<Dependencies,Nothing$,A,S>foldLeft(as, zero, (s, a) -> JIO.<R,S>cast(fn.apply(s, a)).zio));
+    }
+
+    /** Runs all effects, one after the other, returning their results in the same order. Stops at the first failure. */
+    public static <R,E,A> JIO<R,E,List<A>> collectAll(Iterable<? extends JIO<? super R, ? extends E, ? extends A>> jios) {
+        return JIO.<R,E,JIO<? super R, ? extends E, ? extends A>,A>foreach(jios, jio -> jio);
+    }
+
+    /** Runs all effects, one after the other, returning their results in the same order. */
+    public static <R,A> UJIO<R,List<A>> collectAllU(Iterable<? extends UJIO<? super R, ? extends A>> jios) {
+        return JIO.<R,UJIO<? super R, ? extends A>,A>foreachU(jios, jio -> jio);
+    }
+
+    /** Runs an effect for every element, all in parallel (unless restricted by withParallelism()), returning the results
+     * in the order of the elements. If any effect fails, the others are interrupted. */
+    public static <R,E,A,B> JIO<R,E,List<B>> foreachPar(Iterable<? extends A> as, Function<? super A, JIO<? super R, ? extends E, ? extends B>> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A,B>foreachPar(as, a -> JIO.<R,E,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs an effect for every element, all in parallel (unless restricted by withParallelism()), returning the results
+     * in the order of the elements. */
+    public static <R,A,B> UJIO<R,List<B>> foreachParU(Iterable<? extends A> as, Function<? super A, UJIO<? super R, ? extends B>> fn) {
+        return new UJIO<>(Iterables.<Dependencies,Nothing$,A,B>foreachPar(as, a -> JIO.<R,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs all effects in parallel (unless restricted by withParallelism()), returning their results in the same order.
+     * If any effect fails, the others are interrupted. */
+    public static <R,E,A> JIO<R,E,List<A>> collectAllPar(Iterable<? extends JIO<? super R, ? extends E, ? extends A>> jios) {
+        return JIO.<R,E,JIO<? super R, ? extends E, ? extends A>,A>foreachPar(jios, jio -> jio);
+    }
+
+    /** Runs all effects in parallel (unless restricted by withParallelism()), returning their results in the same order. */
+    public static <R,A> UJIO<R,List<A>> collectAllParU(Iterable<? extends UJIO<? super R, ? extends A>> jios) {
+        return JIO.<R,UJIO<? super R, ? extends A>,A>foreachParU(jios, jio -> jio);
+    }
+
+    /** Runs an effect for every element, all in parallel (unless restricted by withParallelism()), returning the results
+     * in the order of the elements. Unlike foreachPar, a failure doesn't interrupt the other effects: if any fail, this
+     * fails with all of their errors, in the order of the elements. */
+    public static <R,E,A,B> JIO<R,List<E>,List<B>> validatePar(Iterable<? extends A> as, Function<? super A, JIO<? super R, ? extends E, ? extends B>> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A,B>validatePar(as, a -> JIO.<R,E,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs all effects in parallel (unless restricted by withParallelism()), combining their results with [fn] in the
+     * order in which they complete. [fn] should therefore be associative and commutative. */
+    public static <R,E,A,B> JIO<R,E,B> mergeAllPar(Iterable<? extends JIO<? super R, ? extends E, ? extends A>> jios, B zero, BiFunction<B, ? super A, B> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,JIO<? super R, ? extends E, ? extends A>,A,B>mergeAllPar(
+            jios, jio -> JIO.<R,E,A>cast(jio).zio, zero, (b, a) -> fn.apply(b, a)));
+    }
+
+    /** Fails the given effect with [failure] if it does not complete before the Deadline taken from its environment,
+     * interrupting it. */
+    public static <R,E,A> JIO<R,E,A> timeoutFailR(JIO<? super R, ? extends E, ? extends A> jio, E failure, Function<? super R, Deadline> getDeadline) {
+        return JIO.<R>environment().<A,E>flatMap(env -> JIO.<R,E,A>cast(jio).timeoutFail(failure, getDeadline.apply(env)));
+    }
+
+    /** Fails the given effect with [failure] if it does not complete before the Deadline in its environment,
+     * interrupting it. */
+    public static <R extends Deadline.Has,E,A> JIO<R,E,A> timeoutFailR(JIO<? super R, ? extends E, ? extends A> jio, E failure) {
+        return timeoutFailR(jio, failure, Deadline.Has::deadline);
     }
 
     /** Returns a JIO managing a resource that requires cleanup, requiring an environment.
@@ -146,16 +382,26 @@ public class JIO<R,E,A> {
         );
     }
 
+    /** Starts the given effect on a new fiber that is interrupted when the Scope closes. */
+    public static <E,A> UJIO<Scope, Fiber<E,A>> forkScoped(JIO<Object, ? extends E, ? extends A> jio) {
+        return JIO.<Scope>environment().flatMapU(scope -> JIO.<Object,E,A>cast(jio).forkIn(scope));
+    }
+
+    /** Starts the given effect on a new fiber that is interrupted when the Scope closes. */
+    public static <A> UJIO<Scope, UFiber<A>> forkScopedU(UJIO<Object, ? extends A> jio) {
+        return JIO.<Scope>environment().flatMapU(scope -> JIO.<Object,A>cast(jio).forkIn(scope));
+    }
+
   /** Maintains a Scope while executing an effect, closing the scope after it finishes. The Scope instance is
     * made available to the given function. */
     public static <R,A> UJIO<R,A> scopedWithU(Function<Scope, UJIO<? super R, ? extends A>> fn) {
-        return new UJIO<>(ZIO.scopedWith(s -> fn.apply(new Scope(s)).zio, Trace.empty()));
+        return new UJIO<>(ZIO.scopedWith(s -> fn.apply(new Scope(s)).zio, Tracing.trace(fn)));
     }
 
   /** Maintains a Scope while executing an effect, closing the scope after it finishes. The Scope instance is
     * made available to the given function. */
     public static <R,E,A> JIO<R,E,A> scopedWith(Function<Scope, JIO<? super R, ? extends E, ? extends A>> fn) {
-        return new JIO<>(ZIO.scopedWith(s -> fn.apply(new Scope(s)).zio, Trace.empty()));
+        return new JIO<>(ZIO.scopedWith(s -> fn.apply(new Scope(s)).zio, Tracing.trace(fn)));
     }
 
   /** Maintains a Scope while executing an effect, closing the scope after it finishes. The Scope instance is
@@ -202,37 +448,61 @@ public class JIO<R,E,A> {
     }
 
     public <R1> JIO<R1, E, A> provideFrom(Function<? super R1, ? extends R> fn) {
-        return JIO.<R1>environment().map(fn).flatMap(this::provide);
+        return new JIO<>(Dependencies.<R1,R,E,A>provideFrom(zio, fn::apply));
     }
 
     public <R1> JIO<R1, E, A> provideFrom(UJIO<R1, R> jio) {
         return jio.flatMap(this::provide);
     }
 
+    /** Builds [layer] (and all layers it depends on), and runs this effect with its output as environment. Resources
+     * that the layer acquired are released once this effect completes. */
+    public <R1> JIO<R1, E, A> provideLayer(Layer<? super R1, ? extends E, ? extends R> layer) {
+        return new JIO<>(Dependencies.provideLayer(zio, Layer.<R1,E,R>cast(layer).layer, Tracing.trace()));
+    }
+
     /** Executes the given effect after this one. The effect must have a compatible environment. If not, you can align both
      * effects' environments to the same type by using .provideFrom() on both before flatMap(). */
     public <U> JIO<R, E, U> flatMapU(Function<? super A, UJIO<? super R, ? extends U>> fn) {
-        return new JIO<>(zio.flatMap(a -> fn.apply(a).<E>toJIO().zio, Trace.empty()));
+        return new JIO<>(zio.flatMap(a -> fn.apply(a).<E>toJIO().zio, Tracing.trace(fn)));
     }
 
     /** Executes the given effect after this one. The effect must have a compatible environment and error. If not, you can align
      * both effects' environments to the same type by using .provideFrom() on both before flatMap(), or align the error type using
      * mapError. */
     public <U> JIO<R, E, U> flatMap(Function<? super A, JIO<? super R, ? extends E, ? extends U>> fn) {
-        return new JIO<>(zio.flatMap(a -> fn.apply(a).zio, Trace.empty()));
+        return new JIO<>(zio.flatMap(a -> fn.apply(a).zio, Tracing.trace(fn)));
     }
 
     public <U> JIO<R, E, U> map(Function<? super A, ? extends U> fn) {
-        return flatMapU(a -> succeed(fn.apply(a)));
+        return new JIO<>(zio.map(a -> fn.apply(a), Tracing.trace(fn)));
     }
 
     public <U> JIO<R, E, U> as(U value) {
-        return map(a -> value);
+        return new JIO<>(zio.as(() -> value, Tracing.trace()));
     }
 
     /** Returns a JIO that swaps the error / success cases */
     public JIO<R, A, E> flip() {
-        return new JIO<>(zio.flip(Trace.empty()));
+        return new JIO<>(zio.flip(Tracing.trace()));
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber is a child of the fiber that runs the
+     * returned effect, and is interrupted when that one ends. */
+    public UJIO<R, Fiber<E,A>> fork() {
+        return new UJIO<R, zio.Fiber<E,A>>(zio.fork(Tracing.trace())).map(Fiber::new);
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber keeps running until it ends by itself,
+     * or is interrupted. */
+    public UJIO<R, Fiber<E,A>> forkDaemon() {
+        return new UJIO<R, zio.Fiber<E,A>>(zio.forkDaemon(Tracing.trace())).map(Fiber::new);
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber is interrupted when the given Scope
+     * closes. */
+    public UJIO<R, Fiber<E,A>> forkIn(Scope scope) {
+        return new UJIO<R, zio.Fiber<E,A>>(zio.forkIn(() -> scope.zioScope, Tracing.trace())).map(Fiber::new);
     }
 
     @SuppressWarnings("unchecked")
@@ -246,11 +516,11 @@ public class JIO<R,E,A> {
     }
 
     public <B> JIO<R,E,B> repeat(Schedule<? super R, ? super A, ? extends B> schedule) {
-        return new JIO<>(zio.repeat(() -> Schedule.<R,A,B>cast(schedule).schedule, Trace.empty()));
+        return new JIO<>(zio.repeat(() -> Schedule.<R,A,B>cast(schedule).schedule, Tracing.trace()));
     }
 
     public <B> JIO<R,E,A> retry(Schedule<? super R, ? super E, ? extends B> schedule) {
-        return new JIO<>(zio.retry(() -> Schedule.<R,E,B>cast(schedule).schedule, null, Trace.empty()));
+        return new JIO<>(zio.retry(() -> Schedule.<R,E,B>cast(schedule).schedule, null, Tracing.trace()));
     }
 
     public <B> JIO<R,E,Tuple2<A,B>> zip(JIO<? super R, ? extends E, ? extends B> that) {
@@ -258,20 +528,169 @@ public class JIO<R,E,A> {
     }
 
     public <B,O> JIO<R,E,O> zipWith(JIO<? super R, ? extends E, ? extends B> that, BiFunction<A,B,O> fn) {
-        return new JIO<R,E,Object>(zio.zip(() -> that.zio, (a,b) -> fn.apply(a,b), Trace.empty())).<O>unsafeCast();
+        return new JIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.apply(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect and [that] in parallel, returning both results. If either fails, the other is interrupted. */
+    public <B> JIO<R,E,Tuple2<A,B>> zipPar(JIO<? super R, ? extends E, ? extends B> that) {
+        return zipWithPar(that, Tuple::of);
+    }
+
+    /** Runs this effect and [that] in parallel, combining their results. If either fails, the other is interrupted. */
+    public <B,O> JIO<R,E,O> zipWithPar(JIO<? super R, ? extends E, ? extends B> that, BiFunction<A,B,O> fn) {
+        return new JIO<>(zio.zipWithPar(() -> JIO.<R,E,B>cast(that).zio, (a,b) -> fn.apply(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect and [that] in parallel, combining their results. Unlike zipWithPar, a failure of one doesn't
+     * interrupt the other: if either fails, this fails with the errors of both. */
+    public <B,O> JIO<R,List<E>,O> validateWithPar(JIO<? super R, ? extends E, ? extends B> that, BiFunction<A,B,O> fn) {
+        return new JIO<>(Iterables.<Dependencies,E,A,B,O>validateWithPar(zio, JIO.<R,E,B>cast(that).zio, (a,b) -> fn.apply(a,b)));
+    }
+
+    /** Runs this effect, then [b] and [c], returning all three results. */
+    public <B,C> JIO<R,E,Tuple3<A,B,C>> zip3(JIO<? super R, ? extends E, ? extends B> b, JIO<? super R, ? extends E, ? extends C> c) {
+        return new JIO<>(Zips.<Dependencies,E,A,B,C,Tuple3<A,B,C>>zip3(zio, JIO.<R,E,B>cast(b).zio, JIO.<R,E,C>cast(c).zio, Tuple3::new, Tracing.trace()));
+    }
+
+    /** Runs this effect, then [b], [c] and [d], returning all four results. */
+    public <B,C,D> JIO<R,E,Tuple4<A,B,C,D>> zip4(JIO<? super R, ? extends E, ? extends B> b, JIO<? super R, ? extends E, ? extends C> c, JIO<? super R, ? extends E, ? extends D> d) {
+        return new JIO<>(Zips.<Dependencies,E,A,B,C,D,Tuple4<A,B,C,D>>zip4(zio, JIO.<R,E,B>cast(b).zio, JIO.<R,E,C>cast(c).zio, JIO.<R,E,D>cast(d).zio, Tuple4::new, Tracing.trace()));
+    }
+
+    /** Like map(), for a function that returns a long. The result is boxed once, since ZIO's results are generic. */
+    public JIO<R,E,Long> mapToLong(ToLongFunction<? super A> fn) {
+        return new JIO<>(zio.map(a -> fn.applyAsLong(a), Tracing.trace(fn)));
+    }
+
+    /** Like map(), for a function that returns a double. The result is boxed once, since ZIO's results are generic. */
+    public JIO<R,E,Double> mapToDouble(ToDoubleFunction<? super A> fn) {
+        return new JIO<>(zio.map(a -> fn.applyAsDouble(a), Tracing.trace(fn)));
+    }
+
+    /** Like zipWith(), for a function that returns a long. Unlike zip() followed by map(), this doesn't allocate a tuple. */
+    public <B> JIO<R,E,Long> zipWithLong(JIO<? super R, ? extends E, ? extends B> that, ToLongBiFunction<? super A, ? super B> fn) {
+        return new JIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.applyAsLong(a,b), Tracing.trace(fn)));
+    }
+
+    /** Like zipWith(), for a function that returns a double. Unlike zip() followed by map(), this doesn't allocate a tuple. */
+    public <B> JIO<R,E,Double> zipWithDouble(JIO<? super R, ? extends E, ? extends B> that, ToDoubleBiFunction<? super A, ? super B> fn) {
+        return new JIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.applyAsDouble(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect and [that] in parallel, returning the first one to succeed and interrupting the other. Fails only
+     * if both fail. */
+    public JIO<R,E,A> race(JIO<? super R, ? extends E, ? extends A> that) {
+        return new JIO<>(zio.race(() -> JIO.<R,E,A>cast(that).zio, Tracing.trace()));
+    }
+
+    /** Runs this effect and [that] in parallel, returning the first one to complete (succeeding or failing) and
+     * interrupting the other. */
+    public JIO<R,E,A> raceFirst(JIO<? super R, ? extends E, ? extends A> that) {
+        return new JIO<>(zio.raceFirst(() -> JIO.<R,E,A>cast(that).zio, Tracing.trace()));
+    }
+
+    /** Returns the result of this effect, or an empty Optional if it does not complete within [duration]. In that case,
+     * the effect is interrupted. */
+    public JIO<R,E,Optional<A>> timeout(Duration duration) {
+        return new JIO<R,E,Option<A>>(zio.timeout(() -> duration, Tracing.trace())).map(OptionConverters::toJava);
+    }
+
+    /** Fails with [failure] if this effect does not complete within [duration]. In that case, the effect is interrupted. */
+    public JIO<R,E,A> timeoutFail(E failure, Duration duration) {
+        return new JIO<>(zio.timeoutFail(() -> failure, () -> duration, Tracing.trace()));
+    }
+
+    /** Fails with [failure] if this effect does not complete before [deadline]. In that case, the effect is interrupted. */
+    public JIO<R,E,A> timeoutFail(E failure, Deadline deadline) {
+        return JIO.<R,E,A,Duration>flatMap(deadline.remaining().<E>toJIO(), d -> timeoutFail(failure, d));
+    }
+
+    /** Returns an effect that succeeds with how this one ended: with a result, a failure, a defect or by being
+     * interrupted. This lets callers handle failures without them being turned into exceptions. */
+    public UJIO<R, Exit<E,A>> exit() {
+        return new UJIO<>(zio.exit(Tracing.trace()).map(Exit::wrap, Trace.empty()));
+    }
+
+    /** Returns an effect that runs [finalizer] after this one, however it ends: with a result, a failure, a defect or by
+     * being interrupted. */
+    public JIO<R,E,A> ensuring(UJIO<? super R, ?> finalizer) {
+        return new JIO<>(zio.ensuring(() -> finalizer.<Object>unsafeCast().zio, Tracing.trace()));
+    }
+
+    /** Returns an effect that runs this one without it being interrupted. Interrupting the returned effect only takes
+     * hold once this effect has completed. */
+    public JIO<R,E,A> uninterruptible() {
+        return new JIO<>(zio.uninterruptible(Tracing.trace()));
+    }
+
+    /** Returns an effect that starts this one in the background, and returns a stage that completes when this effect
+     * does. Failures that aren't a Throwable complete the stage with a FailureException, which has no stack trace.
+     * Cancelling the stage's CompletableFuture interrupts this effect. */
+    public UJIO<R, CompletionStage<A>> toCompletionStage() {
+        return new UJIO<>(Effects.toCompletableFuture(zio, FailureException::new));
+    }
+
+    /** Limits the parallel operators inside this effect (e.g. foreachPar) to run at most [n] effects at the same time. */
+    public JIO<R,E,A> withParallelism(int n) {
+        return new JIO<>(Iterables.withParallelism(zio, n));
+    }
+
+    /** Returns an effect that runs this one at most once. Its first run remembers the outcome, which later runs return
+     * without running this effect again. */
+    public UJIO<Object, JIO<R,E,A>> memoize() {
+        return JIO.wrapU(zio.memoize(Tracing.trace()).map(z -> new JIO<R,E,A>(z), Trace.empty()));
+    }
+
+    /** Returns an effect that remembers the outcome of this one for [timeToLive]. Runs after that run this effect again,
+     * and remember its new outcome. The environment is provided when the returned UJIO runs. */
+    public UJIO<R, JIO<Object,E,A>> cached(Duration timeToLive) {
+        return new UJIO<>(zio.cached(() -> timeToLive, Tracing.trace()).map(z -> JIO.<E,A>wrap(z), Trace.empty()));
+    }
+
+    /** Like cached(), also returning an effect that forgets the remembered outcome, so the next run refreshes it. */
+    public UJIO<R, Tuple2<JIO<Object,E,A>, UJIO<Object,Object>>> cachedInvalidate(Duration timeToLive) {
+        return new UJIO<>(zio.cachedInvalidate(() -> timeToLive, Tracing.trace()).map(t ->
+            Tuple.of(JIO.<E,A>wrap(t._1()), JIO.<Object>wrapU(t._2())), Trace.empty()
+        ));
+    }
+
+    /** Tags the metrics that this effect updates (including the ones of effects it runs) with [key] set to [value], e.g.
+     * to keep separate metrics per endpoint. */
+    public JIO<R,E,A> tagged(String key, String value) {
+        return new JIO<>(Instruments.tagged(zio, key, value));
+    }
+
+    /** Returns an effect that runs this one, observing how long it takes in seconds in [histogram]. */
+    public JIO<R,E,A> timed(Histogram histogram) {
+        return histogram.time(this);
+    }
+
+    /** Returns an effect that runs this one after taking a permit from [limiter]. */
+    public JIO<R,E,A> throttled(RateLimiter limiter) {
+        return limiter.throttle(this);
+    }
+
+    /** Returns an effect that runs this one once [bulkhead] has room for it. */
+    public JIO<R,E,A> withMaxConcurrency(Bulkhead bulkhead) {
+        return bulkhead.run(this);
     }
 
     /// ------ only for JIO --------
 
     public <E1> JIO<R,E1,A> mapError(Function<? super E, ? extends E1> fn) {
-        return new JIO<>(zio.mapError(e -> fn.apply(e), null, Trace.empty()));
+        return new JIO<>(zio.mapError(e -> fn.apply(e), null, Tracing.trace(fn)));
     }
 
     public <E1> JIO<R,E1,A> flatMapError(Function<? super E, UJIO<? super R, ? extends E1>> fn) {
-        return new JIO<>(zio.flatMapError(e -> fn.apply(e).<E1>unsafeCast().zio, null, Trace.empty()));
+        return new JIO<>(zio.flatMapError(e -> fn.apply(e).<E1>unsafeCast().zio, null, Tracing.trace(fn)));
+    }
+
+    /** Returns an effect that runs this one, incrementing [counter] if it fails. */
+    public JIO<R,E,A> countFailures(Counter counter) {
+        return this.<E>flatMapError(e -> counter.increment().as(e));
     }
 
     public <U> UJIO<R,U> catchAllU(Function<? super E, UJIO<? super R, ? extends U>> fn) {
-        return new UJIO<>(zio.catchAll(e -> fn.apply(e).<U>unsafeCast().zio, null, Trace.empty()));
+        return new UJIO<>(zio.catchAll(e -> fn.apply(e).<U>unsafeCast().zio, null, Tracing.trace(fn)));
     }
 }
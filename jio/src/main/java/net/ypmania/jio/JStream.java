@@ -0,0 +1,134 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import net.ypmania.ziojava.Dependencies;
+import net.ypmania.ziojava.Streams;
+import zio.stream.ZStream;
+
+/** A program that emits any number of values, possibly infinitely many. Values are pulled in chunks as they are consumed,
+    so memory use depends on the chunk size rather than on the number of values.
+    @param R The stream's environment (dependencies it needs), or Object if no dependencies are needed.
+    @param E The result of the stream failing.
+    @param A The values emitted by the stream.
+*/
+public class JStream<R,E,A> {
+    public static <E,A> JStream<Object,E,A> fromIterable(Iterable<? extends A> as) {
+        return wrap(Streams.<E,A>fromIterable(as));
+    }
+
+    /** Returns a stream that pulls from the given iterator, which can therefore only be run once. */
+    public static <E,A> JStream<Object,E,A> fromIterator(Iterator<? extends A> iterator) {
+        return fromIterator(iterator, Streams.defaultChunkSize());
+    }
+
+    /** Returns a stream that pulls up to [chunkSize] elements at a time from the given iterator, which can therefore
+     * only be run once. */
+    public static <E,A> JStream<Object,E,A> fromIterator(Iterator<? extends A> iterator, int chunkSize) {
+        return wrap(Streams.<E,A>fromIterator(iterator, chunkSize));
+    }
+
+    /** Returns a stream that takes elements from the given queue, until the queue is shut down. */
+    public static <E,A> JStream<Object,E,A> fromQueue(Dequeue<A> queue) {
+        return wrap(Streams.<E,A>fromQueue(queue.dequeue, Streams.defaultChunkSize()));
+    }
+
+    /** Returns a stream that emits the result of [jio], which can use the stream's environment. */
+    public static <R,E,A> JStream<R,E,A> fromJIO(JIO<? super R, ? extends E, ? extends A> jio) {
+        return new JStream<>(Streams.fromZIO(JIO.<R,E,A>cast(jio).zio));
+    }
+
+    /** Returns a stream that emits the result of [jio], which can use the stream's environment. */
+    public static <R,E,A> JStream<R,E,A> fromJIOU(UJIO<? super R, ? extends A> jio) {
+        return fromJIO(JIO.<R,A>cast(jio).<E>toJIO());
+    }
+
+    public static <E,A> JStream<Object,E,A> wrap(ZStream<Object, ? extends E, ? extends A> stream) {
+        return new JStream<>(Streams.wrap(stream));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R,E,A> JStream<R,E,A> cast(JStream<? super R, ? extends E, ? extends A> stream) {
+        return (JStream<R,E,A>) stream;
+    }
+
+    private final ZStream<Dependencies,E,A> stream;
+
+    @SuppressWarnings("unchecked")
+    JStream(ZStream<Dependencies, ? extends E, ? extends A> stream) {
+        this.stream = (ZStream<Dependencies,E,A>) stream;
+    }
+
+    public JStream<Object,E,A> provide(R environment) {
+        return new JStream<>(Streams.provide(stream, environment));
+    }
+
+    public <R1> JStream<R1,E,A> provideFrom(Function<? super R1, ? extends R> fn) {
+        return new JStream<>(Streams.<R1,R,E,A>provideFrom(stream, fn::apply));
+    }
+
+    public <B> JStream<R,E,B> map(Function<? super A, ? extends B> fn) {
+        return new JStream<>(stream.<B>map(a -> fn.apply(a), Tracing.trace(fn)));
+    }
+
+    /** Runs an effect for every element, one at a time, emitting its results. */
+    public <B> JStream<R,E,B> mapJIO(Function<? super A, JIO<? super R, ? extends E, ? extends B>> fn) {
+        return new JStream<>(stream.<Dependencies,E,B>mapZIO(a -> JIO.<R,E,B>cast(fn.apply(a)).zio, Tracing.trace(fn)));
+    }
+
+    /** Runs an effect for every element, one at a time, emitting its results. */
+    public <B> JStream<R,E,B> mapJIOU(Function<? super A, UJIO<? super R, ? extends B>> fn) {
+        return mapJIO(a -> JIO.<R,B>cast(fn.apply(a)).<E>toJIO());
+    }
+
+    /** Runs an effect for every element, with up to [n] running at the same time, emitting their results in the order of
+     * the elements. Elements are only pulled while fewer than [n] effects are running. */
+    public <B> JStream<R,E,B> mapJIOPar(int n, Function<? super A, JIO<? super R, ? extends E, ? extends B>> fn) {
+        return new JStream<>(Streams.<Dependencies,E,A,B>mapZIOPar(stream, n, a -> JIO.<R,E,B>cast(fn.apply(a)).zio));
+    }
+
+    /** Runs an effect for every element, with up to [n] running at the same time, emitting their results in the order of
+     * the elements. Elements are only pulled while fewer than [n] effects are running. */
+    public <B> JStream<R,E,B> mapJIOParU(int n, Function<? super A, UJIO<? super R, ? extends B>> fn) {
+        return mapJIOPar(n, a -> JIO.<R,B>cast(fn.apply(a)).<E>toJIO());
+    }
+
+    /** Emits the elements in lists of [n] (the last one possibly shorter). */
+    public JStream<R,E,List<A>> grouped(int n) {
+        return new JStream<>(Streams.grouped(stream, n));
+    }
+
+    /** Emits the elements in lists of at most [n], emitting a shorter list if [within] has passed since the previous one. */
+    public JStream<R,E,List<A>> groupedWithin(int n, Duration within) {
+        return new JStream<>(Streams.groupedWithin(stream, n, within));
+    }
+
+    /** Emits only the first [n] elements, and then stops pulling. */
+    public JStream<R,E,A> take(long n) {
+        return new JStream<>(Streams.take(stream, n));
+    }
+
+    /** Runs the stream, combining its elements into a single result. */
+    public <B> JIO<R,E,B> runFold(B zero, BiFunction<B, ? super A, B> fn) {
+        return new JIO<>(stream.<B>runFold(() -> zero, (b, a) -> fn.apply(b, a), Tracing.trace(fn)));
+    }
+
+    /** Runs the stream, collecting all its elements into memory. */
+    public JIO<R,E,List<A>> runCollect() {
+        return new JIO<>(Streams.runCollect(stream));
+    }
+
+    /** Runs the stream, running an effect for every element. */
+    public JIO<R,E,Object> runForeach(Function<? super A, JIO<? super R, ? extends E, ?>> fn) {
+        return new JIO<>(stream.<Dependencies,E>runForeach(a -> JIO.<R,E,Object>cast(fn.apply(a)).zio, Tracing.trace(fn)));
+    }
+
+    /** Runs the stream, running an effect for every element. */
+    public JIO<R,E,Object> runForeachU(Function<? super A, UJIO<? super R, ?>> fn) {
+        return runForeach(a -> JIO.<R,Object>cast(fn.apply(a)).<E>toJIO());
+    }
+}
@@ -0,0 +1,150 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ypmania.ziojava.Clocks;
+
+/** Runs background jobs (e.g. cache refreshes, heartbeats or cleanups) on schedules, until the Scope that the scheduler
+    was made in closes, which interrupts all of them. Every time a job's schedule recurs, a run of the job starts on a
+    fiber of its own. Runs that would exceed the job's maximum concurrency are skipped rather than queued, so slow runs
+    don't pile up.
+*/
+public class JobScheduler {
+    /** Returns a scheduler that starts the first run of each job as soon as the job is added. */
+    public static UJIO<Scope, JobScheduler> make() {
+        return make(Duration.ZERO);
+    }
+
+    /** Returns a scheduler that delays the first run of each job by up to [spread], so jobs that are added at the same
+     * time (e.g. at startup) don't all run at the same time. The delay is derived from the job's name, so a job gets
+     * the same delay every time it is added. */
+    public static UJIO<Scope, JobScheduler> make(Duration spread) {
+        return JIO.<Scope>environment().map(scope -> new JobScheduler(scope, spread));
+    }
+
+    private final Scope scope;
+    private final Duration spread;
+    /** Guarded by synchronizing on this. */
+    private final List<Job> jobs = new ArrayList<>();
+
+    private JobScheduler(Scope scope, Duration spread) {
+        this.scope = scope;
+        this.spread = spread;
+    }
+
+    /** Adds a job whose runs don't overlap: a recurrence while the previous run is still going is skipped. */
+    public UJIO<Object, Job> add(String name, UJIO<Object, ?> run, Schedule<Object, Object, ?> schedule) {
+        return add(name, run, schedule, 1);
+    }
+
+    /** Adds a job that has at most [maxConcurrency] runs going at the same time. The schedule's input is the fiber of
+     * the previous run (or of the previous skip), so it should only look at the time. */
+    public UJIO<Object, Job> add(String name, UJIO<Object, ?> run, Schedule<Object, Object, ?> schedule, int maxConcurrency) {
+        return Bulkhead.make(maxConcurrency).flatMapU(bulkhead -> {
+            var job = new Job(this, name, bulkhead);
+            var tick = bulkhead.tryRunU(job.timed(run))
+                .flatMapU(ran -> ran.isPresent() ? JIO.empty() : JIO.succeedWith(job::skipped))
+                .forkIn(scope);
+            return JIO.sleep(startDelay(name, spread)).flatMapU(u -> tick.repeat(schedule)).forkIn(scope).map(driver -> {
+                job.driver = driver;
+                synchronized (this) {
+                    jobs.add(job);
+                }
+                return job;
+            });
+        });
+    }
+
+    /** Returns the jobs that have been added and not cancelled, in the order they were added. */
+    public UJIO<Object, List<Job>> jobs() {
+        return JIO.succeedWith(() -> {
+            synchronized (this) {
+                return List.copyOf(jobs);
+            }
+        });
+    }
+
+    private synchronized void remove(Job job) {
+        jobs.remove(job);
+    }
+
+    /** Spreads jobs over [0, spread) by multiplying the hash of their name with the golden ratio, which also separates
+     * names that differ in one character (e.g. "refresh-1" and "refresh-2"). */
+    static Duration startDelay(String name, Duration spread) {
+        long nanos = spread.toNanos();
+        return (nanos <= 0) ? Duration.ZERO : Duration.ofNanos(Long.remainderUnsigned(name.hashCode() * 0x9E3779B97F4A7C15L, nanos));
+    }
+
+    /** A job that was added to a JobScheduler. */
+    public static final class Job {
+        private final JobScheduler scheduler;
+        private final String name;
+        private final Bulkhead bulkhead;
+        /** The fiber that follows the job's schedule. Set once the job has been added. */
+        private volatile UFiber<?> driver;
+        private long runs = 0;
+        private long skipped = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+        private long lastNanos = 0;
+
+        private Job(JobScheduler scheduler, String name, Bulkhead bulkhead) {
+            this.scheduler = scheduler;
+            this.name = name;
+            this.bulkhead = bulkhead;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Returns a snapshot of the job's runs so far. */
+        public UJIO<Object, Stats> stats() {
+            return bulkhead.stats().map(b -> {
+                synchronized (this) {
+                    return new Stats(runs, skipped, b.running(), Duration.ofNanos(totalNanos), Duration.ofNanos(maxNanos), Duration.ofNanos(lastNanos));
+                }
+            });
+        }
+
+        /** Stops scheduling new runs of this job, and removes it from the scheduler's jobs(). Runs that are going are left
+         * to complete. */
+        public UJIO<Object, Object> cancel() {
+            return driver.interrupt().flatMapU(exit -> JIO.succeedWith(() -> scheduler.remove(this)));
+        }
+
+        private <A> UJIO<Object, A> timed(UJIO<Object, A> run) {
+            return JIO.wrapU(Clocks.nanoTime()).flatMapU(start -> run.flatMapU(a ->
+                JIO.wrapU(Clocks.nanoTime()).flatMapU(end -> JIO.succeedWith(() -> ran(end - start))).as(a)
+            ));
+        }
+
+        private synchronized void ran(long nanos) {
+            runs++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastNanos = nanos;
+        }
+
+        private synchronized void skipped() {
+            skipped++;
+        }
+    }
+
+    /** Runs of a job.
+        @param runs Number of runs that completed
+        @param skipped Number of recurrences that were skipped, because the job already had its maximum number of runs going
+        @param running Number of runs that are currently going
+        @param total Total time taken by the completed runs
+        @param max Time taken by the slowest completed run
+        @param last Time taken by the most recently completed run
+    */
+    public record Stats(long runs, long skipped, int running, Duration total, Duration max, Duration last) {
+        /** Returns the average time taken by the completed runs. */
+        public Duration average() {
+            return (runs == 0) ? Duration.ZERO : total.dividedBy(runs);
+        }
+    }
+}
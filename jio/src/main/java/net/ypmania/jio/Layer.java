@@ -0,0 +1,84 @@
+package net.ypmania.jio;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import net.ypmania.ziojava.Dependencies;
+import zio.ZLayer;
+
+/** A recipe for building a service (or a group of services) out of its dependencies, and releasing it again. Layers
+    are wired together with and() and to(), and built when an effect that needs their output is run through
+    JIO.provideLayer(). While building, a layer instance that occurs several times in the graph (e.g. a shared
+    configuration or connection pool) is only built once, layers combined with and() are built in parallel, and
+    resources acquired by scoped() layers are released in the reverse order of acquisition once the effect completes.
+    @param RIn The dependencies the layer needs, or Object if it doesn't need any.
+    @param E The error that building the layer can fail with.
+    @param ROut The service that the layer builds.
+*/
+public class Layer<RIn,E,ROut> {
+    /** Returns a layer that always has [value] as output. */
+    public static <E,A> Layer<Object,E,A> succeed(A value) {
+        return fromJIO(JIO.succeed(value));
+    }
+
+    /** Returns a layer that builds its output by running [make], which gets the layer's input as environment. */
+    public static <RIn,E,ROut> Layer<RIn,E,ROut> fromJIO(JIO<? super RIn, ? extends E, ? extends ROut> make) {
+        return new Layer<>(Dependencies.layer(JIO.<RIn,E,ROut>cast(make).zio, Tracing.trace()));
+    }
+
+    /** Returns a layer that builds its output by running [make], which gets the layer's input as environment. */
+    public static <RIn,E,ROut> Layer<RIn,E,ROut> fromJIO(UJIO<? super RIn, ? extends ROut> make) {
+        return fromJIO(make.<E>toJIO());
+    }
+
+    /** Returns a layer that builds its output by running the effect that [make] returns for the layer's input. The
+     * effect gets a Scope, which is closed when the layer is released, so resources it acquires (e.g. through
+     * JIO.acquireRelease) live as long as the layer. */
+    public static <RIn,E,ROut> Layer<RIn,E,ROut> scoped(Function<? super RIn, JIO<? super Scope, ? extends E, ? extends ROut>> make) {
+        return new Layer<>(Dependencies.<RIn,E,ROut>scopedLayer(in -> JIO.<Scope,E,ROut>cast(make.apply(in)).zio, Scope::new, Tracing.trace(make)));
+    }
+
+    /** Returns a layer that builds its output by running the effect that [make] returns for the layer's input. The
+     * effect gets a Scope, which is closed when the layer is released. */
+    public static <RIn,E,ROut> Layer<RIn,E,ROut> scopedU(Function<? super RIn, UJIO<? super Scope, ? extends ROut>> make) {
+        return scoped(in -> make.apply(in).<E>toJIO());
+    }
+
+    /** Returns a layer that has its input as output. This is useful to pass dependencies on next to a layer's own
+     * output, e.g. in.and(Layer.identity(), ...). */
+    public static <R,E> Layer<R,E,R> identity() {
+        return new Layer<>(Dependencies.<E>identityLayer(Tracing.trace()));
+    }
+
+    final ZLayer<Dependencies,E,Dependencies> layer;
+
+    @SuppressWarnings("unchecked")
+    Layer(ZLayer<Dependencies, ? extends E, Dependencies> layer) {
+        this.layer = (ZLayer<Dependencies,E,Dependencies>) layer;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <RIn,E,ROut> Layer<RIn,E,ROut> cast(Layer<? super RIn, ? extends E, ? extends ROut> layer) {
+        return (Layer<RIn,E,ROut>) layer;
+    }
+
+    /** Returns a layer that builds this layer and [that] in parallel from the same input, and combines their outputs. */
+    public <B,C> Layer<RIn,E,C> and(Layer<? super RIn, ? extends E, ? extends B> that, BiFunction<? super ROut, ? super B, ? extends C> combine) {
+        return new Layer<>(Dependencies.<E,ROut,B,C>and(layer, Layer.<RIn,E,B>cast(that).layer, combine::apply, Tracing.trace(combine)));
+    }
+
+    /** Returns a layer that builds this layer, and then [that] with this layer's output as input. */
+    public <C> Layer<RIn,E,C> to(Layer<? super ROut, ? extends E, ? extends C> that) {
+        return new Layer<>(Dependencies.to(layer, Layer.<ROut,E,C>cast(that).layer, Tracing.trace()));
+    }
+
+    /** Returns a layer that transforms this layer's output with [fn]. */
+    public <C> Layer<RIn,E,C> map(Function<? super ROut, ? extends C> fn) {
+        return new Layer<>(Dependencies.<E,ROut,C>mapLayer(layer, fn::apply, Tracing.trace(fn)));
+    }
+
+    /** Returns a layer that is built anew wherever it occurs, rather than being shared within the graph. */
+    public Layer<RIn,E,ROut> fresh() {
+        return new Layer<>(layer.fresh());
+    }
+}
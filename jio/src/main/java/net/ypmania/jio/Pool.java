@@ -0,0 +1,119 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ypmania.ziojava.Clocks;
+import net.ypmania.ziojava.Dependencies;
+import net.ypmania.ziojava.Pools;
+import zio.ZIO;
+
+/** A pool of reusable items that are expensive to create, e.g. database connections. Items are created by a JIO that
+    can register their cleanup with its Scope (e.g. through JIO.acquireRelease). That cleanup runs when an item is
+    invalidated or expires, or when the Scope of the pool itself closes.
+    @param E The result of failing to create an item.
+    @param A The type of the items.
+*/
+public class Pool<E,A> {
+    /** Returns a pool that keeps exactly [size] items. */
+    public static <E,A> UJIO<Scope, Pool<E,A>> fixed(JIO<? super Scope, ? extends E, ? extends A> create, int size) {
+        return JIO.succeedWith(Counters::new).flatMapU(counters -> JIO.<Scope>environment().flatMapU(scope ->
+            JIO.wrapU(Pools.<E,A>fixed(creator(create, counters), Scope::new, size, scope.zioScope)).map(p -> new Pool<>(p, counters))
+        ));
+    }
+
+    /** Returns a pool that keeps between [min] and [max] items. Items above [min] are cleaned up once they have not been
+     * used for [timeToLive]. */
+    public static <E,A> UJIO<Scope, Pool<E,A>> dynamic(JIO<? super Scope, ? extends E, ? extends A> create, int min, int max, Duration timeToLive) {
+        return JIO.succeedWith(Counters::new).flatMapU(counters -> JIO.<Scope>environment().flatMapU(scope ->
+            JIO.wrapU(Pools.<E,A>dynamic(creator(create, counters), Scope::new, min, max, timeToLive, scope.zioScope)).map(p -> new Pool<>(p, counters))
+        ));
+    }
+
+    private final zio.ZPool<E,A> pool;
+    private final Counters counters;
+
+    private Pool(zio.ZPool<E,A> pool, Counters counters) {
+        this.pool = pool;
+        this.counters = counters;
+    }
+
+    /** Takes an item out of the pool, waiting for one to become available if needed. The item is returned to the pool
+     * when the Scope closes. Fails if the item had to be created, and that failed. */
+    public JIO<Scope,E,A> get() {
+        return JIO.<Scope>environment().<A,E>flatMap(scope ->
+            JIO.wrapU(Clocks.nanoTime()).<A,E>flatMap(start ->
+                JIO.<E,A>wrap(Pools.get(pool, scope.zioScope)).flatMapU(item ->
+                    JIO.wrapU(Clocks.nanoTime())
+                        .flatMapU(end -> track(scope,
+                            JIO.succeedWith(() -> counters.checkedOut(end - start)),
+                            JIO.succeedWith(counters.inUse::decrementAndGet)))
+                        .as(item)
+                )
+            )
+        );
+    }
+
+    /** Marks an item as broken, so it is cleaned up (and replaced if needed) rather than returned to the pool. */
+    public UJIO<Object,Object> invalidate(A item) {
+        return JIO.wrapU(pool.invalidate(item, Tracing.trace()));
+    }
+
+    /** Returns a snapshot of the pool's usage so far. */
+    public UJIO<Object,Metrics> metrics() {
+        return JIO.succeedWith(() -> {
+            var inUse = counters.inUse.get();
+            return new Metrics(
+                inUse,
+                Math.max(0, counters.allocated.get() - inUse),
+                counters.checkouts.get(),
+                Duration.ofNanos(counters.totalWaitNanos.get()),
+                Duration.ofNanos(counters.maxWaitNanos.get())
+            );
+        });
+    }
+
+    /** Usage of a pool.
+        @param inUse Number of items that are currently checked out
+        @param idle Number of items that are currently waiting in the pool
+        @param checkouts Number of times an item was checked out
+        @param totalWait Total time spent waiting to check out an item
+        @param maxWait Longest time spent waiting to check out an item
+    */
+    public record Metrics(long inUse, long idle, long checkouts, Duration totalWait, Duration maxWait) {
+        /** Returns the average time spent waiting to check out an item. */
+        public Duration averageWait() {
+            return (checkouts == 0) ? Duration.ZERO : totalWait.dividedBy(checkouts);
+        }
+    }
+
+    private static class Counters {
+        final AtomicLong allocated = new AtomicLong();
+        final AtomicLong inUse = new AtomicLong();
+        final AtomicLong checkouts = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+
+        void checkedOut(long waitNanos) {
+            inUse.incrementAndGet();
+            checkouts.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    /** Wraps [create] so that it keeps count of the items that exist. */
+    private static <E,A> ZIO<Dependencies,E,A> creator(JIO<? super Scope, ? extends E, ? extends A> create, Counters counters) {
+        return JIO.<Scope,E,A>cast(create).flatMapU(item ->
+            JIO.<Scope>environment().flatMapU(scope ->
+                track(scope, JIO.succeedWith(counters.allocated::incrementAndGet), JIO.succeedWith(counters.allocated::decrementAndGet))
+            ).as(item)
+        ).zio;
+    }
+
+    /** Runs [acquired] and adds [released] as a finalizer to [scope], without an interruption being able to come in
+     * between, so that the counters always go back down. */
+    private static UJIO<Object,Object> track(Scope scope, UJIO<Object,?> acquired, UJIO<Object,?> released) {
+        return JIO.wrapU(Pools.track(scope.zioScope, JIO.unwrap(acquired.<Object>unsafeCast()), JIO.unwrap(released.<Object>unsafeCast())));
+    }
+}
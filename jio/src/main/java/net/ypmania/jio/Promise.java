@@ -0,0 +1,49 @@
+package net.ypmania.jio;
+
+import net.ypmania.ziojava.Concurrents;
+
+/** A value that is completed once, and that fibers can wait for without blocking a thread.
+    @param E The error that the promise can fail with.
+    @param A The value that the promise can succeed with.
+*/
+public class Promise<E,A> {
+    public static <E,A> UJIO<Object, Promise<E,A>> make() {
+        return JIO.wrapU(zio.Promise.<E,A>make(Tracing.trace())).map(Promise::new);
+    }
+
+    /** Creates a promise right away, rather than in an effect. */
+    static <E,A> Promise<E,A> unsafeMake() {
+        return new Promise<>(Concurrents.unsafePromise());
+    }
+
+    private final zio.Promise<E,A> promise;
+
+    Promise(zio.Promise<E,A> promise) {
+        this.promise = promise;
+    }
+
+    /** Waits for the promise to be completed, succeeding or failing with its outcome. */
+    public JIO<Object,E,A> await() {
+        return JIO.wrap(promise.await(Tracing.trace()));
+    }
+
+    /** Completes the promise with the given value. Returns false if the promise was already completed. */
+    public UJIO<Object,Boolean> succeed(A value) {
+        return JIO.wrapU(Concurrents.toBoolean(promise.succeed(value, Tracing.trace())));
+    }
+
+    /** Fails the promise with the given error. Returns false if the promise was already completed. */
+    public UJIO<Object,Boolean> fail(E error) {
+        return JIO.wrapU(Concurrents.toBoolean(promise.fail(error, Tracing.trace())));
+    }
+
+    /** Completes the promise with the outcome of the given effect. Returns false if the promise was already completed. */
+    public <R> UJIO<R,Boolean> complete(JIO<? super R, ? extends E, ? extends A> jio) {
+        return new UJIO<>(Concurrents.toBoolean(promise.complete(() -> JIO.<R,E,A>cast(jio).zio, Tracing.trace())));
+    }
+
+    /** Returns whether the promise has been completed. */
+    public UJIO<Object,Boolean> isDone() {
+        return JIO.wrapU(Concurrents.toBoolean(promise.isDone(Tracing.trace())));
+    }
+}
@@ -0,0 +1,49 @@
+package net.ypmania.jio;
+
+import java.util.List;
+
+import net.ypmania.ziojava.Concurrents;
+
+/** A queue that can be shared between fibers. Offering to a full bounded queue, or taking from an empty one, suspends the
+ * fiber rather than blocking a thread.
+    @param A The type of the elements.
+*/
+public class Queue<A> extends Dequeue<A> {
+    /** Returns a queue that holds at most [capacity] elements, suspending offers while it is full. */
+    public static <A> UJIO<Object, Queue<A>> bounded(int capacity) {
+        return JIO.wrapU(Concurrents.<A>boundedQueue(capacity)).map(Queue::new);
+    }
+
+    /** Returns a queue that holds at most [capacity] elements, rejecting new elements while it is full. */
+    public static <A> UJIO<Object, Queue<A>> dropping(int capacity) {
+        return JIO.wrapU(Concurrents.<A>droppingQueue(capacity)).map(Queue::new);
+    }
+
+    /** Returns a queue that holds at most [capacity] elements, discarding the oldest elements while it is full. */
+    public static <A> UJIO<Object, Queue<A>> sliding(int capacity) {
+        return JIO.wrapU(Concurrents.<A>slidingQueue(capacity)).map(Queue::new);
+    }
+
+    /** Returns a queue without a size limit. */
+    public static <A> UJIO<Object, Queue<A>> unbounded() {
+        return JIO.wrapU(Concurrents.<A>unboundedQueue()).map(Queue::new);
+    }
+
+    private final zio.Queue<A> queue;
+
+    Queue(zio.Queue<A> queue) {
+        super(queue);
+        this.queue = queue;
+    }
+
+    /** Offers an element, returning whether it was accepted. A bounded queue waits until there is room. */
+    public UJIO<Object, Boolean> offer(A value) {
+        return JIO.wrapU(Concurrents.toBoolean(queue.offer(value, Tracing.trace())));
+    }
+
+    /** Offers all elements, returning the ones that were not accepted. This amortizes the cost of synchronization over
+     * many elements. */
+    public UJIO<Object, List<A>> offerAll(Iterable<? extends A> values) {
+        return JIO.wrapU(Concurrents.offerAll(queue, values));
+    }
+}
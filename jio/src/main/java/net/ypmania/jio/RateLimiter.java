@@ -0,0 +1,81 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+
+import net.ypmania.jio.tuple.Tuple;
+import net.ypmania.ziojava.Clocks;
+
+/** Limits how often effects run, e.g. to stay within the request rate of a third-party API. Effects that would exceed
+    the rate wait (without blocking a thread) until it's their turn, in the order in which they arrived. Effects that
+    are interrupted while waiting still use up their turn.
+*/
+public class RateLimiter {
+    /** Returns a rate limiter that allows [permits] per [period], of which up to [burst] can be taken at once.
+     * @throws IllegalArgumentException if [permits] or [burst] is not positive, or [period] is shorter than [permits]
+     *         nanoseconds. */
+    public static UJIO<Object, RateLimiter> make(long permits, Duration period, int burst) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive, but was " + permits);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive, but was " + burst);
+        }
+        long interval = period.toNanos() / permits;
+        if (interval <= 0) {
+            throw new IllegalArgumentException("period must be at least one nanosecond per permit, but was " + period);
+        }
+        return Ref.make(Long.MIN_VALUE).map(due -> new RateLimiter(new Gcra(interval, interval * (burst - 1)), due));
+    }
+
+    private final Gcra gcra;
+    /** When the next permit is due, in Clock.nanoTime. */
+    private final Ref<Long> due;
+
+    private RateLimiter(Gcra gcra, Ref<Long> due) {
+        this.gcra = gcra;
+        this.due = due;
+    }
+
+    /** Takes a permit, waiting until one is available. */
+    public UJIO<Object,Object> acquire() {
+        return JIO.wrapU(Clocks.nanoTime()).flatMapU(now -> due.modify(d -> {
+            var reserved = gcra.reserve(d, now);
+            return Tuple.of(reserved.delay(), reserved.next());
+        })).flatMapU(delay -> (delay > 0) ? JIO.sleep(Duration.ofNanos(delay)) : JIO.empty());
+    }
+
+    /** Takes a permit if one is available right away, returning whether it did. */
+    public UJIO<Object,Boolean> tryAcquire() {
+        return JIO.wrapU(Clocks.nanoTime()).flatMapU(now -> due.modify(d -> {
+            var reserved = gcra.reserve(d, now);
+            return (reserved.delay() > 0) ? Tuple.<Boolean,Long>of(false, d) : Tuple.<Boolean,Long>of(true, reserved.next());
+        }));
+    }
+
+    /** Returns an effect that runs [jio] after taking a permit. */
+    public <R,E,A> JIO<R,E,A> throttle(JIO<? super R, ? extends E, ? extends A> jio) {
+        return JIO.<R,Object>cast(acquire()).<A,E>flatMap(u -> jio);
+    }
+
+    /** Returns an effect that runs [jio] after taking a permit. */
+    public <R,A> UJIO<R,A> throttleU(UJIO<? super R, ? extends A> jio) {
+        return JIO.<R,Object>cast(acquire()).<A>flatMapU(u -> jio);
+    }
+
+    /** The generic cell rate algorithm. It admits the same permits as a token bucket, but only needs to remember when
+        the next permit is due, rather than a number of tokens and when they were last refilled. Times are in nanoseconds.
+        @param interval Time between permits at the sustained rate
+        @param tolerance How far ahead of when they are due permits can be taken, which allows bursts
+    */
+    record Gcra(long interval, long tolerance) {
+        /** Reserves a permit at [now], given that the next permit is [due]. */
+        Reservation reserve(long due, long now) {
+            long start = Math.max(due, now);
+            return new Reservation(Math.max(0, start - tolerance - now), start + interval);
+        }
+    }
+
+    /** @param delay How long to wait before using the reserved permit
+        @param next When the permit after it is due */
+    record Reservation(long delay, long next) {}
+}
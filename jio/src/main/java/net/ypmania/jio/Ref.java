@@ -0,0 +1,58 @@
+package net.ypmania.jio;
+
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import net.ypmania.jio.tuple.Tuple2;
+
+/** A mutable reference that can be shared between fibers. Updates are atomic, and never block a thread.
+    @param A The type of the value held by the reference.
+*/
+public class Ref<A> {
+    public static <A> UJIO<Object, Ref<A>> make(A initial) {
+        return JIO.wrapU(zio.Ref.make(() -> initial, Tracing.trace())).map(Ref::new);
+    }
+
+    private final zio.Ref<A> ref;
+
+    Ref(zio.Ref<A> ref) {
+        this.ref = ref;
+    }
+
+    public UJIO<Object, A> get() {
+        return JIO.wrapU(ref.get(Tracing.trace()));
+    }
+
+    public UJIO<Object, Object> set(A value) {
+        return JIO.wrapU(ref.set(value, Tracing.trace()));
+    }
+
+    /** Sets a new value, returning the previous one. */
+    public UJIO<Object, A> getAndSet(A value) {
+        return JIO.wrapU(ref.getAndSet(value, Tracing.trace()));
+    }
+
+    /** Atomically updates the value. The function can be invoked more than once, so it must not have side effects. */
+    public UJIO<Object, Object> update(UnaryOperator<A> fn) {
+        return JIO.wrapU(ref.update(a -> fn.apply(a), Tracing.trace(fn)));
+    }
+
+    /** Atomically updates the value, returning the new one. */
+    public UJIO<Object, A> updateAndGet(UnaryOperator<A> fn) {
+        return JIO.wrapU(ref.updateAndGet(a -> fn.apply(a), Tracing.trace(fn)));
+    }
+
+    /** Atomically updates the value, returning the previous one. */
+    public UJIO<Object, A> getAndUpdate(UnaryOperator<A> fn) {
+        return JIO.wrapU(ref.getAndUpdate(a -> fn.apply(a), Tracing.trace(fn)));
+    }
+
+    /** Atomically computes a result and a new value from the current value. The function returns Tuple.of(result, newValue),
+     * and can be invoked more than once, so it must not have side effects. */
+    public <B> UJIO<Object, B> modify(Function<? super A, Tuple2<B, A>> fn) {
+        return JIO.wrapU(ref.<B>modify(a -> {
+            var t = fn.apply(a);
+            return new scala.Tuple2<B, A>(t._1(), t._2());
+        }, Tracing.trace(fn)));
+    }
+}
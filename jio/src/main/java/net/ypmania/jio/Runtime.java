@@ -1,19 +1,190 @@
 package net.ypmania.jio;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
+import net.ypmania.jio.metrics.ExecutorMetrics;
+import net.ypmania.jio.metrics.FiberCounts;
+import net.ypmania.ziojava.Instruments;
 import net.ypmania.ziojava.JavaRuntime;
 
 public class Runtime<R> {
-    public static final Runtime<Object> runtime = new Runtime<>(JavaRuntime.defaultRuntime());
+    public static final Runtime<Object> runtime = new Runtime<>(JavaRuntime.defaultRuntime(FailureException::new));
+
+    /** Returns a builder for a Runtime with custom executors and runtime flags. */
+    public static Builder builder() {
+        return new Builder();
+    }
 
     private JavaRuntime<R> r;
+    /** Executors that the builder created for this runtime, which shutdown() shuts down. */
+    private final List<ExecutorService> owned;
 
     public Runtime(JavaRuntime<R> r) {
+        this(r, List.of());
+    }
+
+    private Runtime(JavaRuntime<R> r, List<ExecutorService> owned) {
         this.r = r;
+        this.owned = owned;
     }
 
+    /** Starts the given effect, returning a future that completes when the effect does. Effects that complete without
+     * suspending complete the future before this method returns. */
     public <A> CompletableFuture<A> unsafeRun(UJIO<Object,A> jio) {
         return r.unsafeRun(JIO.unwrap(jio));
     }
+
+    /** Runs the given effect on the calling thread, blocking it until the effect completes. This is intended for effects
+     * that complete without suspending, where it avoids the overhead of a future. */
+    public <A> A unsafeRunSync(UJIO<Object,A> jio) {
+        return r.unsafeRunSync(JIO.unwrap(jio));
+    }
+
+    /** Starts the given effect, returning a future that completes with how the effect ended. Failures complete the future
+     * normally with an Exit.Failure, rather than exceptionally, so they don't cost an exception. */
+    public <E,A> CompletableFuture<Exit<E,A>> unsafeRunExit(JIO<Object,E,A> jio) {
+        return unsafeRun(jio.exit());
+    }
+
+    /** Runs the given effect on the calling thread like unsafeRunSync(), returning how it ended. */
+    public <E,A> Exit<E,A> unsafeRunExitSync(JIO<Object,E,A> jio) {
+        return unsafeRunSync(jio.exit());
+    }
+
+    /** Returns the current state of the executor that runs this runtime's fibers, e.g. how many fibers are waiting to
+     * run. Executors passed to the builder don't report any. */
+    public Optional<ExecutorMetrics> executorMetrics() {
+        return Optional.ofNullable(r.unsafeRunSync(Instruments.executorMetrics())).map(m ->
+            new ExecutorMetrics(m.concurrency(), m.capacity(), m.size(), m.enqueuedCount(), m.dequeuedCount(), m.workersCount())
+        );
+    }
+
+    /** Returns the number of root fibers that are running and suspended. This needs the FIBER_ROOTS flag, and returns
+     * zeroes without it. */
+    public FiberCounts fiberCounts() {
+        var counts = r.unsafeRunSync(Instruments.rootFiberCounts());
+        return new FiberCounts(counts[0], counts[1]);
+    }
+
+    /** Releases the resources of a runtime created through builder(), including the executors that the builder created
+     * (through parallelism(), blockingThreads() or blockingOnVirtualThreads()). Executors passed to the builder are not
+     * shut down. */
+    public void shutdown() {
+        r.shutdown();
+        owned.forEach(ExecutorService::shutdown);
+    }
+
+    /** Runtime flags that can be switched on or off through the builder. */
+    public enum Flag {
+        /** Tracks all root fibers, so they can be listed (e.g. for fiber dumps). */
+        FIBER_ROOTS("FiberRoots"),
+        /** Logs every operation the runtime executes. For debugging only. */
+        OP_LOG("OpLog"),
+        /** Notifies supervisors of every operation the runtime executes. */
+        OP_SUPERVISION("OpSupervision"),
+        /** Collects ZIO's built-in fiber metrics, e.g. Metrics.fibersStarted. */
+        RUNTIME_METRICS("RuntimeMetrics"),
+        /** Makes long-running fibers yield to others periodically. */
+        COOPERATIVE_YIELDING("CooperativeYielding"),
+        /** Tracks the fiber running on each thread. */
+        CURRENT_FIBER("CurrentFiber"),
+        /** Allows interrupted fibers to run their finalizers interruptibly. */
+        WIND_DOWN("WindDown");
+
+        private final String zioName;
+
+        Flag(String zioName) {
+            this.zioName = zioName;
+        }
+    }
+
+    /** Configures a Runtime. Anything that is not configured keeps ZIO's default. */
+    public static class Builder {
+        private Executor executor = null;
+        private Executor blockingExecutor = null;
+        /** Creates the executor when build() is called, if the builder is to own it. */
+        private Supplier<ExecutorService> ownExecutor = null;
+        private Supplier<ExecutorService> ownBlockingExecutor = null;
+        private final EnumSet<Flag> enabled = EnumSet.noneOf(Flag.class);
+        private final EnumSet<Flag> disabled = EnumSet.noneOf(Flag.class);
+
+        Builder() {}
+
+        /** Runs effects on the given executor, instead of ZIO's default work-stealing scheduler. */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            this.ownExecutor = null;
+            return this;
+        }
+
+        /** Runs effects on a work-stealing pool with the given number of threads, e.g. to match a container's CPU quota.
+         * The pool is shut down with the runtime. */
+        public Builder parallelism(int threads) {
+            this.executor = null;
+            this.ownExecutor = () -> new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            return this;
+        }
+
+        /** Runs blocking effects on the given executor, instead of ZIO's default unbounded blocking pool. */
+        public Builder blockingExecutor(Executor executor) {
+            this.blockingExecutor = executor;
+            this.ownBlockingExecutor = null;
+            return this;
+        }
+
+        /** Runs blocking effects on a pool with at most the given number of threads. The pool is shut down with the
+         * runtime. */
+        public Builder blockingThreads(int maxThreads) {
+            return ownBlockingExecutor(() -> Executors.newFixedThreadPool(maxThreads, Thread.ofPlatform().name("jio-blocking-", 0).daemon().factory()));
+        }
+
+        /** Runs each blocking effect on its own virtual thread. */
+        public Builder blockingOnVirtualThreads() {
+            return ownBlockingExecutor(Executors::newVirtualThreadPerTaskExecutor);
+        }
+
+        private Builder ownBlockingExecutor(Supplier<ExecutorService> create) {
+            this.blockingExecutor = null;
+            this.ownBlockingExecutor = create;
+            return this;
+        }
+
+        public Builder enable(Flag flag) {
+            disabled.remove(flag);
+            enabled.add(flag);
+            return this;
+        }
+
+        public Builder disable(Flag flag) {
+            enabled.remove(flag);
+            disabled.add(flag);
+            return this;
+        }
+
+        public Runtime<Object> build() {
+            var owned = new ArrayList<ExecutorService>();
+            var exec = (ownExecutor != null) ? own(owned, ownExecutor) : executor;
+            var blockingExec = (ownBlockingExecutor != null) ? own(owned, ownBlockingExecutor) : blockingExecutor;
+            return new Runtime<>(JavaRuntime.make(exec, blockingExec, names(enabled), names(disabled), FailureException::new), List.copyOf(owned));
+        }
+
+        private static Executor own(List<ExecutorService> owned, Supplier<ExecutorService> create) {
+            var executor = create.get();
+            owned.add(executor);
+            return executor;
+        }
+
+        private static List<String> names(EnumSet<Flag> flags) {
+            return flags.stream().map(f -> f.zioName).toList();
+        }
+    }
 }
@@ -1,26 +1,57 @@
 package net.ypmania.jio;
 
 import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import net.ypmania.jio.tuple.Tuple;
+import net.ypmania.jio.tuple.Tuple2;
 import net.ypmania.ziojava.Dependencies;
-import zio.Trace;
+import net.ypmania.ziojava.Schedules;
 
 @SuppressWarnings("unchecked")
 public class Schedule<R,I,O> {
     public static Schedule<Object,Object,Long> recurs(long n) {
-        return wrap(zio.Schedule.recurs(n, Trace.empty()));
+        return wrap(zio.Schedule.recurs(n, Tracing.trace()));
     }
 
     public static Schedule<Object,Object,Long> once() {
-        return wrap(zio.Schedule.once(Trace.empty()));
+        return wrap(zio.Schedule.once(Tracing.trace()));
     }
 
     public static Schedule<Object,Object,Object> stop() {
-        return wrap(zio.Schedule.stop(Trace.empty()));
+        return wrap(zio.Schedule.stop(Tracing.trace()));
     }
 
     public static Schedule<Object,Object,Long> spaced(Duration duration) {
-        return wrap(zio.Schedule.spaced(duration, Trace.empty()));
+        return wrap(zio.Schedule.spaced(duration, Tracing.trace()));
+    }
+
+    /** Recurs forever, waiting [base] * 2^n before the n-th recurrence. Outputs the delay. */
+    public static Schedule<Object,Object,Duration> exponential(Duration base) {
+        return exponential(base, 2.0);
+    }
+
+    /** Recurs forever, waiting [base] * [factor]^n before the n-th recurrence. Outputs the delay. */
+    public static Schedule<Object,Object,Duration> exponential(Duration base, double factor) {
+        return wrap(zio.Schedule.exponential(base, factor, Tracing.trace()));
+    }
+
+    /** Recurs forever, waiting [one], [one], 2*[one], 3*[one], 5*[one], etc. Outputs the delay. */
+    public static Schedule<Object,Object,Duration> fibonacci(Duration one) {
+        return wrap(zio.Schedule.fibonacci(one, Tracing.trace()));
+    }
+
+    /** Recurs on a fixed interval, regardless of how long each run takes. If a run takes longer than the interval, the
+     * next one starts right away, but missed runs are not made up for. Outputs the number of recurrences so far. */
+    public static Schedule<Object,Object,Long> fixed(Duration interval) {
+        return wrap(zio.Schedule.fixed(interval, Tracing.trace()));
+    }
+
+    /** Recurs at the end of every window of the given size (measured from the first run). Outputs the number of
+     * recurrences so far. */
+    public static Schedule<Object,Object,Long> windowed(Duration interval) {
+        return wrap(zio.Schedule.windowed(interval, Tracing.trace()));
     }
 
     public static <I,O> Schedule<Object,I,O> wrap(zio.Schedule<Object, ? super I, ? extends O> s) {
@@ -36,4 +67,49 @@ public class Schedule<R,I,O> {
     Schedule(zio.Schedule<Dependencies, ? super I, ? extends O> schedule) {
         this.schedule = (zio.Schedule<Dependencies, I, O>) schedule;
     }
+
+    public <O2> Schedule<R,I,O2> map(Function<? super O, ? extends O2> fn) {
+        return new Schedule<R,I,O2>(schedule.<O2>map(o -> fn.apply(o), Tracing.trace(fn)));
+    }
+
+    /** Stops recurring once [duration] has passed since the first run. */
+    public Schedule<R,I,O> upTo(Duration duration) {
+        return new Schedule<>(schedule.upTo(duration, Tracing.trace()));
+    }
+
+    /** Randomly varies each delay between 80% and 120% of its value, so many clients retrying at the same time spread
+     * out their attempts instead of all hitting a service at once. */
+    public Schedule<R,I,O> jittered() {
+        return new Schedule<>(schedule.jittered(Tracing.trace()));
+    }
+
+    /** Randomly varies each delay between [min] and [max] times its value. */
+    public Schedule<R,I,O> jittered(double min, double max) {
+        return new Schedule<>(schedule.jittered(min, max, Tracing.trace()));
+    }
+
+    /** Continues only while the input (e.g. the error for JIO.retry) matches the predicate. */
+    public <I1 extends I> Schedule<R,I1,O> whileInput(Predicate<? super I1> predicate) {
+        return new Schedule<R,I1,O>(schedule.<I1>whileInput(i -> predicate.test(i), Tracing.trace(predicate)));
+    }
+
+    /** Continues only while the output of this schedule matches the predicate. */
+    public Schedule<R,I,O> whileOutput(Predicate<? super O> predicate) {
+        return new Schedule<>(schedule.whileOutput(o -> predicate.test(o), Tracing.trace(predicate)));
+    }
+
+    /** Continues only while both schedules continue, using the longer of their delays. */
+    public <O2> Schedule<R,I,Tuple2<O,O2>> and(Schedule<? super R, ? super I, O2> that) {
+        return new Schedule<R,I,scala.Tuple2<O,O2>>(Schedules.and(schedule, Schedule.<R,I,O2>cast(that).schedule)).map(t -> Tuple.of(t._1(), t._2()));
+    }
+
+    /** Continues while either schedule continues, using the shorter of their delays. */
+    public <O2> Schedule<R,I,Tuple2<O,O2>> or(Schedule<? super R, ? super I, O2> that) {
+        return new Schedule<R,I,scala.Tuple2<O,O2>>(Schedules.or(schedule, Schedule.<R,I,O2>cast(that).schedule)).map(t -> Tuple.of(t._1(), t._2()));
+    }
+
+    /** Runs this schedule until it is done, and then [that] one. */
+    public Schedule<R,I,O> andThen(Schedule<? super R, ? super I, ? extends O> that) {
+        return new Schedule<>(schedule.andThen(Schedule.<R,I,O>cast(that).schedule, Tracing.trace()));
+    }
 }
@@ -1,21 +1,18 @@
 package net.ypmania.jio;
 
-import zio.Trace;
-
-
 public class Scope {
     public static UJIO<Object, Scope> make() {
-        return JIO.wrapU(zio.Scope.make(Trace.empty())).map(Scope::new);
+        return JIO.wrapU(zio.Scope.make(Tracing.trace())).map(Scope::new);
     }
 
-    private final zio.Scope zioScope;
+    final zio.Scope zioScope;
 
     public Scope(zio.Scope zioScope) {
         this.zioScope = zioScope;
     }
 
     public UJIO<Object, Object> addFinalizer(UJIO<Object,?> run) {
-        return JIO.wrapU(zioScope.addFinalizer(() -> JIO.unwrap(run.<Object>unsafeCast()), Trace.empty()));
+        return JIO.wrapU(zioScope.addFinalizer(() -> JIO.unwrap(run.<Object>unsafeCast()), Tracing.trace()));
     }
 
     interface Has {
@@ -0,0 +1,42 @@
+package net.ypmania.jio;
+
+import net.ypmania.ziojava.Concurrents;
+
+/** Limits the number of effects that run at the same time. Waiting for a permit suspends the fiber, rather than blocking
+ * a thread. */
+public class Semaphore {
+    public static UJIO<Object, Semaphore> make(long permits) {
+        return JIO.wrapU(Concurrents.semaphore(permits)).map(Semaphore::new);
+    }
+
+    private final zio.Semaphore semaphore;
+
+    Semaphore(zio.Semaphore semaphore) {
+        this.semaphore = semaphore;
+    }
+
+    /** Runs the given effect while holding a permit, waiting for one to become available first. */
+    public <R,E,A> JIO<R,E,A> withPermit(JIO<? super R, ? extends E, ? extends A> jio) {
+        return new JIO<>(semaphore.withPermit(JIO.<R,E,A>cast(jio).zio, Tracing.trace()));
+    }
+
+    /** Runs the given effect while holding a permit, waiting for one to become available first. */
+    public <R,A> UJIO<R,A> withPermitU(UJIO<? super R, ? extends A> jio) {
+        return new UJIO<>(semaphore.withPermit(JIO.<R,A>cast(jio).zio, Tracing.trace()));
+    }
+
+    /** Runs the given effect while holding [n] permits, waiting for them to become available first. */
+    public <R,E,A> JIO<R,E,A> withPermits(long n, JIO<? super R, ? extends E, ? extends A> jio) {
+        return new JIO<>(semaphore.withPermits(n, JIO.<R,E,A>cast(jio).zio, Tracing.trace()));
+    }
+
+    /** Runs the given effect while holding [n] permits, waiting for them to become available first. */
+    public <R,A> UJIO<R,A> withPermitsU(long n, UJIO<? super R, ? extends A> jio) {
+        return new UJIO<>(semaphore.withPermits(n, JIO.<R,A>cast(jio).zio, Tracing.trace()));
+    }
+
+    /** Returns the number of permits that are currently available. */
+    public UJIO<Object, Long> available() {
+        return JIO.wrapU(Concurrents.toLong(semaphore.available(Tracing.trace())));
+    }
+}
@@ -0,0 +1,82 @@
+package net.ypmania.jio;
+
+import java.util.Arrays;
+import java.util.List;
+
+import zio.Trace;
+
+/** Captures where effects are built, so that ZIO's fiber dumps and failure traces point at the Java code that built them.
+    Tracing is off by default, since walking the stack makes building effects several times slower. It is switched on
+    by the system property jio.tracing=true, or by setEnabled(). Traces are captured when effects are built rather than
+    run, so the switch is global rather than per Runtime.
+
+    Operators that take a lambda capture their trace once per lambda class, i.e. once per place in the code, so their
+    cost is close to zero after warm-up. Other operators walk the stack every time they're called. */
+public final class Tracing {
+    private static volatile boolean enabled = Boolean.getBoolean("jio.tracing");
+
+    /** The packages (and their subpackages) whose frames belong to JIO itself, or to the libraries and JDK beneath it,
+     * rather than to the code calling it. The system property jio.tracing.internal replaces them with a comma-separated
+     * list, e.g. for JIO's own tests, which live in its packages. */
+    private static final List<String> internalPackages = Arrays.stream(
+        System.getProperty("jio.tracing.internal", "java,jdk,scala,zio,net.ypmania.jio,net.ypmania.ziojava").split(",")
+    ).map(String::strip).filter(p -> !p.isEmpty()).toList();
+
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    /** Whether a class belongs to JIO itself (or to the libraries beneath it), rather than to the code calling it. Tracing
+     * always counts as internal, since it's never the code calling into JIO. */
+    private static final ClassValue<Boolean> isInternal = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (type.getNestHost() == Tracing.class) {
+                return true;
+            }
+            var pkg = type.getPackageName();
+            return internalPackages.stream().anyMatch(p -> pkg.equals(p) || pkg.startsWith(p + "."));
+        }
+    };
+
+    private static final ClassValue<Object> lambdaTraces = new ClassValue<>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            return walk();
+        }
+    };
+
+    private Tracing() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Switches tracing on or off for all effects built afterwards, regardless of the Runtime that they run on. */
+    public static void setEnabled(boolean enabled) {
+        Tracing.enabled = enabled;
+    }
+
+    /** Returns the trace of the code calling into JIO, if tracing is enabled. JIO's other packages get it through
+     * JIO.traced(). */
+    static Object trace() {
+        return enabled ? walk() : Trace.empty();
+    }
+
+    /** Returns the trace of the code calling into JIO with the given lambda, if tracing is enabled. Lambdas that JIO
+     * creates itself are shared by many callers, so those are not cached. */
+    static Object trace(Object fn) {
+        if (!enabled) {
+            return Trace.empty();
+        }
+        var type = fn.getClass();
+        return isInternal.get(type) ? walk() : lambdaTraces.get(type);
+    }
+
+    private static Object walk() {
+        return walker.walk(frames -> frames
+            .filter(f -> !isInternal.get(f.getDeclaringClass()))
+            .findFirst()
+            .map(f -> Trace.apply(f.getClassName() + "." + f.getMethodName(), f.getFileName(), f.getLineNumber()))
+            .orElse(Trace.empty())
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package net.ypmania.jio;
+
+import scala.runtime.Nothing$;
+
+/** An effect that can not fail, running in the background, started by UJIO.fork().
+    @param A The result of the effect.
+*/
+public class UFiber<A> {
+    private final zio.Fiber<Nothing$,A> fiber;
+
+    UFiber(zio.Fiber<Nothing$,A> fiber) {
+        this.fiber = fiber;
+    }
+
+    /** Waits for the fiber to complete, returning its result. */
+    public UJIO<Object,A> join() {
+        return JIO.wrapU(fiber.join(Tracing.trace()));
+    }
+
+    /** Waits for the fiber to complete, returning how it ended. */
+    public UJIO<Object,Exit<?,A>> await() {
+        return JIO.wrapU(fiber.await(Tracing.trace())).<Exit<?,A>>map(Exit::wrap);
+    }
+
+    /** Interrupts the fiber, and waits for it to end (including running its finalizers). */
+    public UJIO<Object,Exit<?,A>> interrupt() {
+        return JIO.wrapU(fiber.interrupt(Tracing.trace())).<Exit<?,A>>map(Exit::wrap);
+    }
+
+    /** Interrupts the fiber in the background, without waiting for it to end. */
+    public UJIO<Object,Object> interruptFork() {
+        return JIO.wrapU(fiber.interruptFork(Tracing.trace()));
+    }
+}
@@ -1,11 +1,27 @@
 package net.ypmania.jio;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
 
+import net.ypmania.jio.metrics.Histogram;
 import net.ypmania.jio.tuple.Tuple;
 import net.ypmania.jio.tuple.Tuple2;
+import net.ypmania.jio.tuple.Tuple3;
+import net.ypmania.jio.tuple.Tuple4;
 import net.ypmania.ziojava.Dependencies;
+import net.ypmania.ziojava.Effects;
+import net.ypmania.ziojava.Instruments;
+import net.ypmania.ziojava.Iterables;
+import net.ypmania.ziojava.Zips;
+import scala.Option;
+import scala.jdk.javaapi.OptionConverters;
 import scala.runtime.Nothing$;
 import zio.Trace;
 import zio.ZIO;
@@ -27,31 +43,37 @@ public class UJIO<R,A> {
     }
 
     public <R1> UJIO<R1, A> provideFrom(Function<? super R1, ? extends R> fn) {
-        return JIO.<R1>environment().map(fn).flatMapU(this::provide);
+        return new UJIO<>(Dependencies.<R1,R,Nothing$,A>provideFrom(zio, fn::apply));
     }
 
     public <R1> UJIO<R1, A> provideFrom(UJIO<R1, R> jio) {
         return jio.flatMapU(this::provide);
     }
 
+    /** Builds [layer] (and all layers it depends on), and runs this effect with its output as environment. Resources
+     * that the layer acquired are released once this effect completes. */
+    public <R1, E> JIO<R1, E, A> provideLayer(Layer<? super R1, ? extends E, ? extends R> layer) {
+        return this.<E>toJIO().provideLayer(layer);
+    }
+
     /** Executes the given effect after this one. The effect must have a compatible environment. If not, you can align both
      * effects' environments to the same type by using .provideFrom() on both before flatMap(). */
     public <U> UJIO<R, U> flatMapU(Function<? super A, UJIO<? super R, ? extends U>> fn) {
-        return new UJIO<>(zio.flatMap(a -> fn.apply(a).zio, Trace.empty()));
+        return new UJIO<>(zio.flatMap(a -> fn.apply(a).zio, Tracing.trace(fn)));
     }
 
     /** Executes the given effect after this one. The effect must have a compatible environment. If not, you can align both
      * effects' environments to the same type by using .provideFrom() on both before flatMap(). */
     public <U, E> JIO<R, E, U> flatMap(Function<? super A, JIO<? super R, ? extends E, ? extends U>> fn) {
-        return new JIO<>(zio.flatMap(a -> fn.apply(a).zio, Trace.empty()));
+        return new JIO<>(zio.flatMap(a -> fn.apply(a).zio, Tracing.trace(fn)));
     }
 
     public <U> UJIO<R, U> map(Function<? super A, ? extends U> fn) {
-        return flatMapU(a -> JIO.succeed(fn.apply(a)));
+        return new UJIO<>(zio.map(a -> fn.apply(a), Tracing.trace(fn)));
     }
 
     public <U> UJIO<R, U> as(U value) {
-        return map(a -> value);
+        return new UJIO<>(zio.as(() -> value, Tracing.trace()));
     }
 
     /** Casts to <U>, which must be a supertype of <A>. Unsafe since <U super A> is not possible to declare in Java. */
@@ -61,7 +83,25 @@ public class UJIO<R,A> {
     }
 
     public <B> UJIO<R,B> repeat(Schedule<? super R, ? super A, ? extends B> schedule) {
-        return new UJIO<>(zio.repeat(() -> Schedule.<R,A,B>cast(schedule).schedule, Trace.empty()));
+        return new UJIO<>(zio.repeat(() -> Schedule.<R,A,B>cast(schedule).schedule, Tracing.trace()));
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber is a child of the fiber that runs the
+     * returned effect, and is interrupted when that one ends. */
+    public UJIO<R, UFiber<A>> fork() {
+        return new UJIO<R, zio.Fiber<Nothing$,A>>(zio.fork(Tracing.trace())).map(UFiber::new);
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber keeps running until it ends by itself,
+     * or is interrupted. */
+    public UJIO<R, UFiber<A>> forkDaemon() {
+        return new UJIO<R, zio.Fiber<Nothing$,A>>(zio.forkDaemon(Tracing.trace())).map(UFiber::new);
+    }
+
+    /** Starts this effect on a new fiber, returning immediately. The new fiber is interrupted when the given Scope
+     * closes. */
+    public UJIO<R, UFiber<A>> forkIn(Scope scope) {
+        return new UJIO<R, zio.Fiber<Nothing$,A>>(zio.forkIn(() -> scope.zioScope, Tracing.trace())).map(UFiber::new);
     }
 
     public <B> UJIO<R,Tuple2<A,B>> zip(UJIO<? super R, ? extends B> that) {
@@ -69,7 +109,131 @@ public class UJIO<R,A> {
     }
 
     public <B,O> UJIO<R,O> zipWith(UJIO<? super R, ? extends B> that, BiFunction<A,B,O> fn) {
-        return new UJIO<R,Object>(zio.zip(() -> that.zio, (a,b) -> fn.apply(a,b), Trace.empty())).<O>unsafeCast();
+        return new UJIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.apply(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect and [that] in parallel, returning both results. */
+    public <B> UJIO<R,Tuple2<A,B>> zipPar(UJIO<? super R, ? extends B> that) {
+        return zipWithPar(that, Tuple::of);
+    }
+
+    /** Runs this effect and [that] in parallel, combining their results. */
+    public <B,O> UJIO<R,O> zipWithPar(UJIO<? super R, ? extends B> that, BiFunction<A,B,O> fn) {
+        return new UJIO<>(zio.zipWithPar(() -> JIO.<R,B>cast(that).zio, (a,b) -> fn.apply(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect, then [b] and [c], returning all three results. */
+    public <B,C> UJIO<R,Tuple3<A,B,C>> zip3(UJIO<? super R, ? extends B> b, UJIO<? super R, ? extends C> c) {
+        return new UJIO<>(Zips.<Dependencies,Nothing$,A,B,C,Tuple3<A,B,C>>zip3(zio, JIO.<R,B>cast(b).zio, JIO.<R,C>cast(c).zio, Tuple3::new, Tracing.trace()));
+    }
+
+    /** Runs this effect, then [b], [c] and [d], returning all four results. */
+    public <B,C,D> UJIO<R,Tuple4<A,B,C,D>> zip4(UJIO<? super R, ? extends B> b, UJIO<? super R, ? extends C> c, UJIO<? super R, ? extends D> d) {
+        return new UJIO<>(Zips.<Dependencies,Nothing$,A,B,C,D,Tuple4<A,B,C,D>>zip4(zio, JIO.<R,B>cast(b).zio, JIO.<R,C>cast(c).zio, JIO.<R,D>cast(d).zio, Tuple4::new, Tracing.trace()));
+    }
+
+    /** Like map(), for a function that returns a long. The result is boxed once, since ZIO's results are generic. */
+    public UJIO<R,Long> mapToLong(ToLongFunction<? super A> fn) {
+        return new UJIO<>(zio.map(a -> fn.applyAsLong(a), Tracing.trace(fn)));
+    }
+
+    /** Like map(), for a function that returns a double. The result is boxed once, since ZIO's results are generic. */
+    public UJIO<R,Double> mapToDouble(ToDoubleFunction<? super A> fn) {
+        return new UJIO<>(zio.map(a -> fn.applyAsDouble(a), Tracing.trace(fn)));
+    }
+
+    /** Like zipWith(), for a function that returns a long. Unlike zip() followed by map(), this doesn't allocate a tuple. */
+    public <B> UJIO<R,Long> zipWithLong(UJIO<? super R, ? extends B> that, ToLongBiFunction<? super A, ? super B> fn) {
+        return new UJIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.applyAsLong(a,b), Tracing.trace(fn)));
+    }
+
+    /** Like zipWith(), for a function that returns a double. Unlike zip() followed by map(), this doesn't allocate a tuple. */
+    public <B> UJIO<R,Double> zipWithDouble(UJIO<? super R, ? extends B> that, ToDoubleBiFunction<? super A, ? super B> fn) {
+        return new UJIO<>(zio.zipWith(() -> that.zio, (a,b) -> fn.applyAsDouble(a,b), Tracing.trace(fn)));
+    }
+
+    /** Runs this effect and [that] in parallel, returning the first one to complete and interrupting the other. */
+    public UJIO<R,A> race(UJIO<? super R, ? extends A> that) {
+        return new UJIO<>(zio.race(() -> JIO.<R,A>cast(that).zio, Tracing.trace()));
+    }
+
+    /** Returns the result of this effect, or an empty Optional if it does not complete within [duration]. In that case,
+     * the effect is interrupted. */
+    public UJIO<R,Optional<A>> timeout(Duration duration) {
+        return new UJIO<R,Option<A>>(zio.timeout(() -> duration, Tracing.trace())).map(OptionConverters::toJava);
+    }
+
+    /** Fails with [failure] if this effect does not complete within [duration]. In that case, the effect is interrupted. */
+    public <E> JIO<R,E,A> timeoutFail(E failure, Duration duration) {
+        return this.<E>toJIO().timeoutFail(failure, duration);
+    }
+
+    /** Fails with [failure] if this effect does not complete before [deadline]. In that case, the effect is interrupted. */
+    public <E> JIO<R,E,A> timeoutFail(E failure, Deadline deadline) {
+        return this.<E>toJIO().timeoutFail(failure, deadline);
+    }
+
+    /** Returns an effect that runs [finalizer] after this one, however it ends: with a result, a defect or by being
+     * interrupted. */
+    public UJIO<R,A> ensuring(UJIO<? super R, ?> finalizer) {
+        return new UJIO<>(zio.ensuring(() -> finalizer.<Object>unsafeCast().zio, Tracing.trace()));
+    }
+
+    /** Returns an effect that runs this one without it being interrupted. Interrupting the returned effect only takes
+     * hold once this effect has completed. */
+    public UJIO<R,A> uninterruptible() {
+        return new UJIO<>(zio.uninterruptible(Tracing.trace()));
+    }
+
+    /** Returns an effect that starts this one in the background, and returns a stage that completes when this effect
+     * does. Cancelling the stage's CompletableFuture interrupts this effect. */
+    public UJIO<R, CompletionStage<A>> toCompletionStage() {
+        return new UJIO<>(Effects.toCompletableFuture(zio, FailureException::new));
+    }
+
+    /** Limits the parallel operators inside this effect (e.g. foreachPar) to run at most [n] effects at the same time. */
+    public UJIO<R,A> withParallelism(int n) {
+        return new UJIO<>(Iterables.withParallelism(zio, n));
+    }
+
+    /** Returns an effect that runs this one at most once. Its first run remembers the result, which later runs return
+     * without running this effect again. */
+    public UJIO<Object, UJIO<R,A>> memoize() {
+        return JIO.wrapU(zio.memoize(Tracing.trace()).map(z -> new UJIO<R,A>(z), Trace.empty()));
+    }
+
+    /** Returns an effect that remembers the result of this one for [timeToLive]. Runs after that run this effect again,
+     * and remember its new result. The environment is provided when the returned UJIO runs. */
+    public UJIO<R, UJIO<Object,A>> cached(Duration timeToLive) {
+        return new UJIO<>(zio.cached(() -> timeToLive, Tracing.trace()).map(z -> JIO.<A>wrapU(z), Trace.empty()));
+    }
+
+    /** Like cached(), also returning an effect that forgets the remembered result, so the next run refreshes it. */
+    public UJIO<R, Tuple2<UJIO<Object,A>, UJIO<Object,Object>>> cachedInvalidate(Duration timeToLive) {
+        return new UJIO<>(zio.cachedInvalidate(() -> timeToLive, Tracing.trace()).map(t ->
+            Tuple.of(JIO.<A>wrapU(t._1()), JIO.<Object>wrapU(t._2())), Trace.empty()
+        ));
+    }
+
+    /** Tags the metrics that this effect updates (including the ones of effects it runs) with [key] set to [value], e.g.
+     * to keep separate metrics per endpoint. */
+    public UJIO<R,A> tagged(String key, String value) {
+        return new UJIO<>(Instruments.tagged(zio, key, value));
+    }
+
+    /** Returns an effect that runs this one, observing how long it takes in seconds in [histogram]. */
+    public UJIO<R,A> timed(Histogram histogram) {
+        return histogram.time(this);
+    }
+
+    /** Returns an effect that runs this one after taking a permit from [limiter]. */
+    public UJIO<R,A> throttled(RateLimiter limiter) {
+        return limiter.throttleU(this);
+    }
+
+    /** Returns an effect that runs this one once [bulkhead] has room for it. */
+    public UJIO<R,A> withMaxConcurrency(Bulkhead bulkhead) {
+        return bulkhead.runU(this);
     }
 
     /// ------ only for UJIO --------
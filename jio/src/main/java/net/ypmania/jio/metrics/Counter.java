@@ -0,0 +1,43 @@
+package net.ypmania.jio.metrics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import net.ypmania.ziojava.Instruments;
+
+/** A metric that counts how often something happened, e.g. requests or failures. */
+public final class Counter extends Metric<Counter> {
+    /** Returns the counter with the given name, registering it for Metrics.snapshot(). */
+    public static Counter named(String name) {
+        return Metrics.register(new Counter(name, new TreeMap<>(), Instruments.counter(name)));
+    }
+
+    private Counter(String name, SortedMap<String,String> tags, zio.metrics.Metric<?,Object,?> untagged) {
+        super(name, tags, untagged);
+    }
+
+    public UJIO<Object,Object> increment() {
+        return incrementBy(1);
+    }
+
+    public UJIO<Object,Object> incrementBy(long amount) {
+        return this.<Object>withFiberTags(c -> JIO.wrapU(Instruments.incrementBy(c.metric, amount)));
+    }
+
+    /** Returns the current count. */
+    public UJIO<Object,Long> count() {
+        return snapshot().map(MetricSnapshot::count);
+    }
+
+    @Override
+    MetricSnapshot.Kind kind() {
+        return MetricSnapshot.Kind.COUNTER;
+    }
+
+    @Override
+    Counter copy(SortedMap<String,String> tags) {
+        return new Counter(name(), tags, untagged);
+    }
+}
@@ -0,0 +1,11 @@
+package net.ypmania.jio.metrics;
+
+/** The state of the executor that runs a Runtime's fibers, at one point in time.
+    @param concurrency Number of fibers that can run at the same time
+    @param capacity Number of fibers that can wait to run, or Integer.MAX_VALUE if unbounded
+    @param size Number of fibers that are waiting to run
+    @param enqueued Number of fibers that have been scheduled to run so far
+    @param dequeued Number of fibers that have been taken from the queue to run so far
+    @param workers Number of threads running fibers
+*/
+public record ExecutorMetrics(int concurrency, int capacity, int size, long enqueued, long dequeued, int workers) {}
@@ -0,0 +1,7 @@
+package net.ypmania.jio.metrics;
+
+/** Numbers of root fibers (fibers that were not forked by another fiber) of a Runtime, at one point in time.
+    @param running Number of fibers that are running or waiting to run
+    @param suspended Number of fibers that are waiting for something else, e.g. a timer, a promise or a callback
+*/
+public record FiberCounts(int running, int suspended) {}
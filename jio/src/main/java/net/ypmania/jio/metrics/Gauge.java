@@ -0,0 +1,39 @@
+package net.ypmania.jio.metrics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import net.ypmania.ziojava.Instruments;
+
+/** A metric that holds the latest value of something, e.g. the size of a queue. */
+public final class Gauge extends Metric<Gauge> {
+    /** Returns the gauge with the given name, registering it for Metrics.snapshot(). */
+    public static Gauge named(String name) {
+        return Metrics.register(new Gauge(name, new TreeMap<>(), Instruments.gauge(name)));
+    }
+
+    private Gauge(String name, SortedMap<String,String> tags, zio.metrics.Metric<?,Object,?> untagged) {
+        super(name, tags, untagged);
+    }
+
+    public UJIO<Object,Object> set(double value) {
+        return this.<Object>withFiberTags(g -> JIO.wrapU(Instruments.update(g.metric, value)));
+    }
+
+    /** Returns the latest value that was set, or 0 if none was. */
+    public UJIO<Object,Double> value() {
+        return snapshot().map(MetricSnapshot::value);
+    }
+
+    @Override
+    MetricSnapshot.Kind kind() {
+        return MetricSnapshot.Kind.GAUGE;
+    }
+
+    @Override
+    Gauge copy(SortedMap<String,String> tags) {
+        return new Gauge(name(), tags, untagged);
+    }
+}
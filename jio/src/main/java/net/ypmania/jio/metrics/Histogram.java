@@ -0,0 +1,71 @@
+package net.ypmania.jio.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import net.ypmania.ziojava.Instruments;
+
+/** A metric that counts observations (e.g. durations) into buckets, so their distribution can be reported. */
+public final class Histogram extends Metric<Histogram> {
+    /** Returns the histogram with the given name, registering it for Metrics.snapshot(). Its buckets hold the
+     * observations at or below each of the given boundaries, and a last bucket holds all other observations. */
+    public static Histogram named(String name, List<Double> boundaries) {
+        return Metrics.register(new Histogram(name, new TreeMap<>(), Instruments.histogram(name, boundaries)));
+    }
+
+    /** Returns a histogram with [count] boundaries, starting at [start] and each [factor] times the previous one. For
+     * example, exponential(name, 0.001, 2, 16) covers durations from 1ms to about 30s. */
+    public static Histogram exponential(String name, double start, double factor, int count) {
+        var boundaries = new ArrayList<Double>(count);
+        for (int i = 0; i < count; i++) {
+            boundaries.add(start * Math.pow(factor, i));
+        }
+        return named(name, boundaries);
+    }
+
+    /** Returns a histogram with [count] boundaries, starting at [start] and each [width] more than the previous one. */
+    public static Histogram linear(String name, double start, double width, int count) {
+        var boundaries = new ArrayList<Double>(count);
+        for (int i = 0; i < count; i++) {
+            boundaries.add(start + width * i);
+        }
+        return named(name, boundaries);
+    }
+
+    private Histogram(String name, SortedMap<String,String> tags, zio.metrics.Metric<?,Object,?> untagged) {
+        super(name, tags, untagged);
+    }
+
+    public UJIO<Object,Object> observe(double value) {
+        return this.<Object>withFiberTags(h -> JIO.wrapU(Instruments.update(h.metric, value)));
+    }
+
+    /** Returns an effect that runs [jio], observing how long it takes in seconds. Failures and interruptions are
+     * observed as well. */
+    public <R,E,A> JIO<R,E,A> time(JIO<R,E,A> jio) {
+        return JIO.<R>environment().<A,E>flatMap(env -> withFiberTags(h -> JIO.succeed(h)).<A,E>flatMap(h ->
+            JIO.wrap(Instruments.timed(JIO.unwrap(jio.provide(env)), h.metric))
+        ));
+    }
+
+    /** Returns an effect that runs [jio], observing how long it takes in seconds. Interruptions are observed as well. */
+    public <R,A> UJIO<R,A> time(UJIO<R,A> jio) {
+        return JIO.<R>environment().flatMapU(env -> withFiberTags(h -> JIO.succeed(h)).flatMapU(h ->
+            JIO.wrapU(Instruments.timed(JIO.unwrap(jio.provide(env)), h.metric))
+        ));
+    }
+
+    @Override
+    MetricSnapshot.Kind kind() {
+        return MetricSnapshot.Kind.HISTOGRAM;
+    }
+
+    @Override
+    Histogram copy(SortedMap<String,String> tags) {
+        return new Histogram(name(), tags, untagged);
+    }
+}
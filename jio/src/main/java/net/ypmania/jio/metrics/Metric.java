@@ -0,0 +1,89 @@
+package net.ypmania.jio.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import net.ypmania.ziojava.Instruments;
+
+/** A named value that effects update, and that shows up in Metrics.snapshot(). Metrics with the same kind, name and
+    tags share their state, no matter how often they are made.
+    @param M The type of the metric itself, which tagged() returns.
+*/
+public abstract sealed class Metric<M extends Metric<M>> permits Counter, Gauge, Histogram {
+    private final String name;
+    private final SortedMap<String,String> tags;
+    /** The ZIO metric without any tags. */
+    final zio.metrics.Metric<?,Object,?> untagged;
+    /** The ZIO metric with [tags]. */
+    final zio.metrics.Metric<?,Object,?> metric;
+    /** The registered variants of this metric, by the extra tags that tagged() was called with. */
+    private final ConcurrentHashMap<Map<String,String>, M> variants = new ConcurrentHashMap<>();
+
+    Metric(String name, SortedMap<String,String> tags, zio.metrics.Metric<?,Object,?> untagged) {
+        this.name = name;
+        this.tags = Collections.unmodifiableSortedMap(tags);
+        this.untagged = untagged;
+        zio.metrics.Metric<?,Object,?> m = untagged;
+        for (var e: tags.entrySet()) {
+            m = m.tagged(e.getKey(), e.getValue());
+        }
+        this.metric = m;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Map<String,String> tags() {
+        return tags;
+    }
+
+    /** Returns this metric with [key] set to [value], e.g. to keep separate counts per endpoint. */
+    public M tagged(String key, String value) {
+        return tagged(Map.of(key, value));
+    }
+
+    /** Returns the current state of this metric. */
+    public UJIO<Object, MetricSnapshot> snapshot() {
+        return JIO.wrapU(Instruments.state(metric)).map(s ->
+            new MetricSnapshot(kind(), name, tags, s.count(), s.value(), s.min(), s.max(), s.buckets())
+        );
+    }
+
+    abstract MetricSnapshot.Kind kind();
+
+    /** Returns a metric of the same kind and name as this one, with the given tags. */
+    abstract M copy(SortedMap<String,String> tags);
+
+    @SuppressWarnings("unchecked")
+    M tagged(Map<String,String> extra) {
+        if (extra.isEmpty()) {
+            return (M) this;
+        }
+        var variant = variants.get(extra);
+        if (variant != null) {
+            return variant;
+        }
+        return variants.computeIfAbsent(Map.copyOf(extra), e -> {
+            if (tags.entrySet().containsAll(e.entrySet())) {
+                return (M) this;
+            }
+            var all = new TreeMap<>(tags);
+            all.putAll(e);
+            return Metrics.register(copy(all));
+        });
+    }
+
+    /** Runs [fn] on this metric, tagged with the tags of the calling fiber (see JIO.tagged). That's the metric that ZIO
+     * updates, and tagging it here registers it for Metrics.snapshot(). Each tag set is only registered once per metric,
+     * so updates in a tagged fiber don't allocate a new metric every time. */
+    <A> UJIO<Object,A> withFiberTags(Function<M, UJIO<Object,A>> fn) {
+        return JIO.wrapU(Instruments.tags()).flatMapU(fiberTags -> fn.apply(tagged(fiberTags)));
+    }
+}
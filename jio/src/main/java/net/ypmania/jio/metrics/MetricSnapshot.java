@@ -0,0 +1,15 @@
+package net.ypmania.jio.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/** The state of a metric at one point in time.
+    @param count Number of observations of a histogram, or the value of a counter.
+    @param value The value of a counter or gauge, or the sum of a histogram's observations.
+    @param min The smallest observation of a histogram. Zero for other metrics.
+    @param max The largest observation of a histogram. Zero for other metrics.
+    @param buckets Number of observations of a histogram at or below each boundary. Empty for other metrics.
+*/
+public record MetricSnapshot(Kind kind, String name, Map<String,String> tags, long count, double value, double min, double max, SortedMap<Double,Long> buckets) {
+    public enum Kind { COUNTER, GAUGE, HISTOGRAM }
+}
@@ -0,0 +1,50 @@
+package net.ypmania.jio.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+
+/** Lists the metrics made through Counter, Gauge and Histogram, so they can be exported to other metrics systems. Metrics
+    are global: they are shared by all runtimes.
+*/
+public final class Metrics {
+    private record Key(MetricSnapshot.Kind kind, String name, Map<String,String> tags) {}
+
+    private static final ConcurrentHashMap<Key, Metric<?>> registered = new ConcurrentHashMap<>();
+
+    /** Number of fibers started by runtimes with the RUNTIME_METRICS flag. */
+    public static final Counter fibersStarted = Counter.named("zio_fiber_started");
+    /** Number of fibers that succeeded on runtimes with the RUNTIME_METRICS flag. */
+    public static final Counter fiberSuccesses = Counter.named("zio_fiber_successes");
+    /** Number of fibers that failed on runtimes with the RUNTIME_METRICS flag. */
+    public static final Counter fiberFailures = Counter.named("zio_fiber_failures");
+    /** How long fibers ran on runtimes with the RUNTIME_METRICS flag, with the buckets that ZIO uses for it. */
+    public static final Histogram fiberLifetimes = Histogram.exponential("zio_fiber_lifetimes", 1.0, 2.0, 100);
+
+    private Metrics() {}
+
+    /** Returns the current state of all metrics, ordered by name. Metrics that were tagged when they were made or
+     * updated (see JIO.tagged) are listed separately from their untagged metric. */
+    public static UJIO<Object, List<MetricSnapshot>> snapshot() {
+        return JIO.collectAllU(registered.values().stream().map(Metric::snapshot).toList()).map(snapshots ->
+            snapshots.stream().sorted(Comparator.comparing(MetricSnapshot::name)).toList()
+        );
+    }
+
+    /** Returns the number of fibers that have started but not yet completed, on runtimes with the RUNTIME_METRICS flag. */
+    public static UJIO<Object, Long> activeFibers() {
+        return fibersStarted.count().zipWith(fiberSuccesses.count(), (started, succeeded) -> started - succeeded)
+            .zipWith(fiberFailures.count(), (running, failed) -> running - failed);
+    }
+
+    /** Returns the registered metric of the same kind, name and tags as [metric], registering [metric] if there is none. */
+    @SuppressWarnings("unchecked")
+    static <M extends Metric<M>> M register(M metric) {
+        var existing = registered.putIfAbsent(new Key(metric.kind(), metric.name(), metric.tags()), metric);
+        return (existing != null) ? (M) existing : metric;
+    }
+}
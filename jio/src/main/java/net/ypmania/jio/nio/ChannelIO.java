@@ -0,0 +1,251 @@
+package net.ypmania.jio.nio;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.Channel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Scope;
+import net.ypmania.jio.UJIO;
+
+/** Reads and writes NIO channels one buffer at a time, so files and sockets of any size are processed in constant memory.
+ *
+ * The fold functions receive each buffer as it was read, without copying it into a byte[]. The buffer is reused for the
+ * next read, so a fold function must consume it before returning, and must not keep a reference to it.
+ *
+ * Operations that take a buffer size allocate a direct buffer of that size for each call. Callers that read or write many
+ * times can allocate one buffer themselves and pass it in instead, as long as they don't use it for two operations at
+ * the same time.
+ *
+ * Blocking operations run on ZIO's blocking thread pool. They reject channels in non-blocking mode, which could read or
+ * write nothing and have them spin. Channels opened here are closed when their Scope closes. Errors while closing are
+ * ignored. */
+public class ChannelIO {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** Opens a file, which is closed when the Scope closes. */
+    public static JIO<Scope, IOException, FileChannel> open(Path path, OpenOption... options) {
+        return JIO.acquireRelease(JIO.<FileChannel,IOException>attemptBlocking(() -> FileChannel.open(path, options)), ChannelIO::close);
+    }
+
+    /** Opens a file for asynchronous access, which is closed when the Scope closes. */
+    public static JIO<Scope, IOException, AsynchronousFileChannel> openAsync(Path path, OpenOption... options) {
+        return JIO.acquireRelease(JIO.<AsynchronousFileChannel,IOException>attemptBlocking(() -> AsynchronousFileChannel.open(path, options)), ChannelIO::close);
+    }
+
+    /** Connects to the given address, returning a socket that is closed when the Scope closes. */
+    public static JIO<Scope, IOException, AsynchronousSocketChannel> connect(SocketAddress address) {
+        return JIO.acquireRelease(JIO.<AsynchronousSocketChannel,IOException>attempt(AsynchronousSocketChannel::open), ChannelIO::close)
+            .flatMap(channel -> ChannelIO.<Void>complete(h -> channel.connect(address, null, h)).as(channel));
+    }
+
+    /** Reads the channel until its end, one buffer of [bufferSize] bytes at a time. */
+    public static <S> JIO<Object, IOException, S> fold(ReadableByteChannel channel, int bufferSize, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        requireBlocking(channel);
+        return withBuffer(bufferSize, buffer -> foldBlocking(channel, buffer, zero, fn));
+    }
+
+    /** Reads the channel until its end into [buffer], one buffer at a time. */
+    public static <S> JIO<Object, IOException, S> fold(ReadableByteChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        requireBlocking(channel);
+        requireCapacity(buffer);
+        return foldBlocking(channel, buffer, zero, fn);
+    }
+
+    /** Opens the file at [path], and reads it until its end, one buffer of [bufferSize] bytes at a time. */
+    public static <S> JIO<Object, IOException, S> foldFile(Path path, int bufferSize, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return JIO.scoped(open(path, StandardOpenOption.READ).flatMap(channel -> fold(channel, bufferSize, zero, fn)));
+    }
+
+    /** Maps the file into memory [regionSize] bytes at a time, and folds over those regions. The file's content is not
+     * copied at all, but a region holds on to address space until it is garbage collected. */
+    public static <S> JIO<Object, IOException, S> foldMapped(FileChannel channel, long regionSize, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return JIO.<Long,IOException>attemptBlocking(channel::size).flatMap(size -> foldMapped(channel, 0, size, regionSize, zero, fn));
+    }
+
+    /** Reads the file until its end, one buffer of [bufferSize] bytes at a time, without blocking a thread while waiting. */
+    public static <S> JIO<Object, IOException, S> foldAsync(AsynchronousFileChannel channel, int bufferSize, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return withBuffer(bufferSize, buffer -> foldAsyncFile(channel, buffer, zero, fn));
+    }
+
+    /** Reads the file until its end into [buffer], one buffer at a time, without blocking a thread while waiting. */
+    public static <S> JIO<Object, IOException, S> foldAsync(AsynchronousFileChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        requireCapacity(buffer);
+        return foldAsyncFile(channel, buffer, zero, fn);
+    }
+
+    /** Reads the socket until the other side stops sending, one buffer of [bufferSize] bytes at a time, without blocking a
+     * thread while waiting. */
+    public static <S> JIO<Object, IOException, S> foldAsync(AsynchronousSocketChannel channel, int bufferSize, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return withBuffer(bufferSize, buffer -> foldAsyncSocket(channel, buffer, zero, fn));
+    }
+
+    /** Reads the socket until the other side stops sending into [buffer], one buffer at a time, without blocking a thread
+     * while waiting. */
+    public static <S> JIO<Object, IOException, S> foldAsync(AsynchronousSocketChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        requireCapacity(buffer);
+        return foldAsyncSocket(channel, buffer, zero, fn);
+    }
+
+    /** Writes the remaining bytes of [buffer] to the channel. */
+    public static JIO<Object, IOException, Object> write(WritableByteChannel channel, ByteBuffer buffer) {
+        requireBlocking(channel);
+        return writeBlocking(channel, buffer);
+    }
+
+    /** Writes to the channel one buffer of [bufferSize] bytes at a time. [fill] puts the next bytes into the (empty)
+     * buffer it is given, and returns whether there are more bytes to come after those. */
+    public static JIO<Object, IOException, Object> writeAll(WritableByteChannel channel, int bufferSize, Predicate<ByteBuffer> fill) {
+        requireBlocking(channel);
+        return withBuffer(bufferSize, buffer -> writeFilled(channel, buffer, fill));
+    }
+
+    /** Writes to the channel from [buffer], as often as [fill] has more bytes. [fill] puts the next bytes into the
+     * (cleared) buffer it is given, and returns whether there are more bytes to come after those. */
+    public static JIO<Object, IOException, Object> writeAll(WritableByteChannel channel, ByteBuffer buffer, Predicate<ByteBuffer> fill) {
+        requireBlocking(channel);
+        requireCapacity(buffer);
+        return writeFilled(channel, buffer, fill);
+    }
+
+    /** Writes the remaining bytes of [buffer] to the file, starting at [position], without blocking a thread while waiting. */
+    public static JIO<Object, IOException, Object> writeAsync(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+        return writeFully(p -> ChannelIO.<Integer>complete(h -> channel.write(buffer, p, null, h)), buffer, position);
+    }
+
+    /** Writes the remaining bytes of [buffer] to the socket, without blocking a thread while waiting. */
+    public static JIO<Object, IOException, Object> writeAsync(AsynchronousSocketChannel channel, ByteBuffer buffer) {
+        return writeFully(p -> ChannelIO.<Integer>complete(h -> channel.write(buffer, null, h)), buffer, 0);
+    }
+
+    private static UJIO<Object, Object> close(Channel channel) {
+        return JIO.attemptBlocking(channel::close).catchAllU(e -> JIO.empty());
+    }
+
+    /** Blocking reads and writes of a channel in non-blocking mode can return without reading or writing anything. */
+    private static void requireBlocking(Channel channel) {
+        if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            throw new IllegalArgumentException("channel must be in blocking mode, but was " + channel);
+        }
+    }
+
+    /** Reads into an empty buffer return without reading anything, so folding with one would never end. */
+    private static void requireCapacity(ByteBuffer buffer) {
+        if (buffer.capacity() == 0) {
+            throw new IllegalArgumentException("buffer must have room for at least one byte, but was " + buffer);
+        }
+    }
+
+    private static <A> JIO<Object, IOException, A> withBuffer(int bufferSize, Function<ByteBuffer, JIO<Object, IOException, A>> fn) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive, but was " + bufferSize);
+        }
+        // A direct buffer lets the OS read into it, rather than into a temporary direct buffer that is then copied.
+        return JIO.succeedWith(() -> ByteBuffer.allocateDirect(bufferSize)).<IOException>toJIO().flatMap(fn::apply);
+    }
+
+    private static <S> JIO<Object, IOException, S> foldBlocking(ReadableByteChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return foldReads(position -> JIO.<Integer,IOException>attemptBlocking(() -> {
+            buffer.clear();
+            return channel.read(buffer);
+        }), buffer, 0, zero, fn);
+    }
+
+    private static <S> JIO<Object, IOException, S> foldAsyncFile(AsynchronousFileChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return foldReads(position -> ChannelIO.<Integer>complete(h -> {
+            buffer.clear();
+            channel.read(buffer, position, null, h);
+        }), buffer, 0, zero, fn);
+    }
+
+    private static <S> JIO<Object, IOException, S> foldAsyncSocket(AsynchronousSocketChannel channel, ByteBuffer buffer, S zero, BiFunction<S, ByteBuffer, S> fn) {
+        return foldReads(position -> ChannelIO.<Integer>complete(h -> {
+            buffer.clear();
+            channel.read(buffer, null, h);
+        }), buffer, 0, zero, fn);
+    }
+
+    /** Runs [read] (which reads into [buffer], starting at the given position) until it returns -1. Reads that return
+     * nothing are not passed to [fn]. */
+    private static <S> JIO<Object, IOException, S> foldReads(Function<Long, JIO<Object, IOException, Integer>> read, ByteBuffer buffer, long position, S state, BiFunction<S, ByteBuffer, S> fn) {
+        return read.apply(position).<S>flatMap(n -> {
+            if (n < 0) {
+                return JIO.succeed(state).<IOException>toJIO();
+            }
+            if (n == 0) {
+                return foldReads(read, buffer, position, state, fn);
+            }
+            buffer.flip();
+            return foldReads(read, buffer, position + n, fn.apply(state, buffer), fn);
+        });
+    }
+
+    private static <S> JIO<Object, IOException, S> foldMapped(FileChannel channel, long position, long size, long regionSize, S state, BiFunction<S, ByteBuffer, S> fn) {
+        if (position >= size) {
+            return JIO.succeed(state).<IOException>toJIO();
+        }
+        return JIO.<ByteBuffer,IOException>attemptBlocking(() -> channel.map(MapMode.READ_ONLY, position, Math.min(regionSize, size - position)))
+            .flatMap(region -> foldMapped(channel, position + region.capacity(), size, regionSize, fn.apply(state, region), fn));
+    }
+
+    private static JIO<Object, IOException, Object> writeBlocking(WritableByteChannel channel, ByteBuffer buffer) {
+        return JIO.<IOException>attemptBlocking(() -> {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+
+    private static JIO<Object, IOException, Object> writeFilled(WritableByteChannel channel, ByteBuffer buffer, Predicate<ByteBuffer> fill) {
+        return JIO.succeedWith(() -> {
+            buffer.clear();
+            var more = fill.test(buffer);
+            buffer.flip();
+            return more;
+        }).<IOException>toJIO().flatMap(more ->
+            writeBlocking(channel, buffer).flatMap(u -> more ? writeFilled(channel, buffer, fill) : JIO.empty().<IOException>toJIO())
+        );
+    }
+
+    /** Runs [write] (which writes from [buffer], starting at the given position) until the buffer has been written. */
+    private static JIO<Object, IOException, Object> writeFully(Function<Long, JIO<Object, IOException, Integer>> write, ByteBuffer buffer, long position) {
+        return write.apply(position).flatMap(n ->
+            buffer.hasRemaining() ? writeFully(write, buffer, position + n) : JIO.empty().<IOException>toJIO()
+        );
+    }
+
+    /** Starts an asynchronous NIO operation, completing with its CompletionHandler. */
+    private static <A> JIO<Object, IOException, A> complete(Consumer<CompletionHandler<A, Object>> start) {
+        return JIO.<IOException, A>async(cb -> start.accept(new CompletionHandler<A, Object>() {
+            @Override
+            public void completed(A result, Object attachment) {
+                cb.succeed(result);
+            }
+
+            @Override
+            public void failed(Throwable t, Object attachment) {
+                if (t instanceof IOException x) {
+                    cb.fail(x);
+                } else {
+                    cb.die(t);
+                }
+            }
+        }));
+    }
+}
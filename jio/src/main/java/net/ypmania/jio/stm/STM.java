@@ -0,0 +1,101 @@
+package net.ypmania.jio.stm;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import scala.runtime.Nothing$;
+import zio.stm.ZSTM;
+
+/** A transaction over transactional variables (TRef, TMap, TQueue, TSemaphore) that can fail. Transactions run
+    optimistically, without holding locks: if another fiber changes a variable that the transaction read, it runs again.
+    It must therefore not have side effects. Run it with atomically(), which returns a JIO.
+    @param E The result of the transaction failing. Failing rolls back all changes the transaction made.
+    @param A The result of the transaction succeeding.
+*/
+public class STM<E,A> {
+    /** Returns an effect that runs [stm] as a single atomic transaction. */
+    public static <E,A> JIO<Object,E,A> atomically(STM<? extends E, ? extends A> stm) {
+        return JIO.<Object,E,A>traced(trace -> JIO.wrap(unwrap(stm).commit(trace)));
+    }
+
+    /** Returns an effect that runs [stm] as a single atomic transaction. */
+    public static <A> UJIO<Object,A> atomically(USTM<? extends A> stm) {
+        return JIO.<Object,A>tracedU(trace -> JIO.wrapU(USTM.unwrap(stm).commit(trace)));
+    }
+
+    public static <A> USTM<A> succeed(A value) {
+        return USTM.wrap(ZSTM.succeed(() -> value));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E,A> STM<E,A> fail(E failure) {
+        return new STM<>((ZSTM<Object,E,A>) (ZSTM<?,?,?>) ZSTM.fail(() -> failure));
+    }
+
+    /** Returns a transaction that starts over, once one of the variables it read has changed. This waits (without
+     * blocking a thread) for a condition, e.g. for a value to become available. */
+    @SuppressWarnings("unchecked")
+    public static <A> USTM<A> retry() {
+        return new USTM<>((ZSTM<Object,Nothing$,A>) (ZSTM<?,?,?>) ZSTM.retry());
+    }
+
+    /** Returns a transaction that retries until [condition] holds. */
+    public static USTM<Object> check(boolean condition) {
+        return USTM.wrap(ZSTM.check(() -> condition));
+    }
+
+    /** Returns the ZIO transaction behind an STM. This is meant for modules that build on JIO. */
+    @SuppressWarnings("unchecked")
+    public static <E,A> ZSTM<Object,E,A> unwrap(STM<? extends E, ? extends A> stm) {
+        return (ZSTM<Object,E,A>) stm.stm;
+    }
+
+    public static <E,A> STM<E,A> wrap(ZSTM<Object, ? extends E, ? extends A> stm) {
+        return new STM<>(stm);
+    }
+
+    private final ZSTM<Object,E,A> stm;
+
+    @SuppressWarnings("unchecked")
+    STM(ZSTM<Object, ? extends E, ? extends A> stm) {
+        this.stm = (ZSTM<Object,E,A>) stm;
+    }
+
+    /** Returns an effect that runs this transaction atomically. */
+    public JIO<Object,E,A> commit() {
+        return atomically(this);
+    }
+
+    public <U> STM<E,U> map(Function<? super A, ? extends U> fn) {
+        return new STM<>(stm.map(a -> fn.apply(a)));
+    }
+
+    /** Continues the transaction with the one returned by [fn]. */
+    public <U> STM<E,U> flatMap(Function<? super A, STM<? extends E, ? extends U>> fn) {
+        return new STM<>(stm.<Object,E,U>flatMap(a -> STM.<E,U>unwrap(fn.apply(a))));
+    }
+
+    /** Continues the transaction with the one returned by [fn]. */
+    public <U> STM<E,U> flatMapU(Function<? super A, USTM<? extends U>> fn) {
+        return flatMap(a -> fn.apply(a).<E>toSTM());
+    }
+
+    public <B,O> STM<E,O> zipWith(STM<? extends E, ? extends B> that, BiFunction<? super A, ? super B, ? extends O> fn) {
+        return flatMap(a -> that.map(b -> fn.apply(a, b)));
+    }
+
+    /** Runs [that] instead if this transaction retries or fails, rolling back the changes of this one. */
+    public STM<E,A> orElse(STM<? extends E, ? extends A> that) {
+        return new STM<>(stm.<Object,E,A>orElse(() -> unwrap(that)));
+    }
+
+    public <E1> STM<E1,A> mapError(Function<? super E, ? extends E1> fn) {
+        return new STM<>(stm.<E1>mapError(e -> fn.apply(e), null));
+    }
+
+    public <U> USTM<U> catchAllU(Function<? super E, USTM<? extends U>> fn) {
+        return new USTM<>(stm.<Object,Nothing$,U>catchAll(e -> USTM.<U>unwrap(fn.apply(e)), null));
+    }
+}
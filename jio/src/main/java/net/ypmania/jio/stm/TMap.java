@@ -0,0 +1,68 @@
+package net.ypmania.jio.stm;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import scala.jdk.javaapi.CollectionConverters;
+import scala.jdk.javaapi.OptionConverters;
+import zio.Trace;
+
+/** A transactional map. Reading and changing it is only possible inside a transaction, so several maps (and other
+    transactional variables) can be kept consistent with each other.
+    @param K The type of the keys.
+    @param V The type of the values.
+*/
+public class TMap<K,V> {
+    public static <K,V> USTM<TMap<K,V>> make() {
+        return USTM.wrap(zio.stm.TMap.<K,V>empty()).map(TMap::new);
+    }
+
+    /** Creates the map in a transaction of its own. */
+    public static <K,V> UJIO<Object, TMap<K,V>> makeCommit() {
+        return STM.atomically(TMap.<K,V>make());
+    }
+
+    private final zio.stm.TMap<K,V> map;
+
+    private TMap(zio.stm.TMap<K,V> map) {
+        this.map = map;
+    }
+
+    /** Returns the value for [key], or an empty Optional if there is none. */
+    public USTM<Optional<V>> get(K key) {
+        return USTM.wrap(map.get(key)).map(OptionConverters::toJava);
+    }
+
+    /** Returns the value for [key], or [fallback] if there is none. */
+    public USTM<V> getOrElse(K key, V fallback) {
+        return USTM.wrap(map.getOrElse(key, () -> fallback));
+    }
+
+    public USTM<Object> put(K key, V value) {
+        return USTM.wrap(map.put(key, value));
+    }
+
+    public USTM<Object> delete(K key) {
+        return USTM.wrap(map.delete(key));
+    }
+
+    public USTM<Boolean> contains(K key) {
+        return USTM.wrap(map.contains(key)).map(b -> (Boolean) b);
+    }
+
+    public USTM<Integer> size() {
+        return USTM.wrap(map.size()).map(i -> (Integer) i);
+    }
+
+    public USTM<List<K>> keys() {
+        return USTM.wrap(map.keys()).map(CollectionConverters::asJava);
+    }
+
+    /** Returns a copy of the map's current contents. */
+    public USTM<Map<K,V>> toMap() {
+        return USTM.wrap(map.toMap()).map(m -> Map.copyOf(CollectionConverters.asJava(m)));
+    }
+}
@@ -0,0 +1,68 @@
+package net.ypmania.jio.stm;
+
+import java.util.List;
+import java.util.Optional;
+
+import net.ypmania.jio.UJIO;
+import scala.jdk.javaapi.CollectionConverters;
+import scala.jdk.javaapi.OptionConverters;
+
+/** A transactional queue. Taking from an empty queue, or offering to a full bounded one, retries the transaction until
+    another fiber changes the queue.
+    @param A The type of the elements.
+*/
+public class TQueue<A> {
+    /** Returns a queue that holds at most [capacity] elements. Offering to a full queue waits for room. */
+    public static <A> USTM<TQueue<A>> bounded(int capacity) {
+        return USTM.wrap(zio.stm.TQueue.<A>bounded(() -> capacity)).map(TQueue::new);
+    }
+
+    public static <A> USTM<TQueue<A>> unbounded() {
+        return USTM.wrap(zio.stm.TQueue.<A>unbounded()).map(TQueue::new);
+    }
+
+    /** Creates a bounded queue in a transaction of its own. */
+    public static <A> UJIO<Object, TQueue<A>> boundedCommit(int capacity) {
+        return STM.atomically(TQueue.<A>bounded(capacity));
+    }
+
+    /** Creates an unbounded queue in a transaction of its own. */
+    public static <A> UJIO<Object, TQueue<A>> unboundedCommit() {
+        return STM.atomically(TQueue.<A>unbounded());
+    }
+
+    private final zio.stm.TQueue<A> queue;
+
+    private TQueue(zio.stm.TQueue<A> queue) {
+        this.queue = queue;
+    }
+
+    /** Adds an element, retrying while the queue is full. */
+    public USTM<Object> offer(A element) {
+        return USTM.wrap(queue.offer(element));
+    }
+
+    /** Takes the oldest element, retrying while the queue is empty. */
+    public USTM<A> take() {
+        return USTM.wrap(queue.take());
+    }
+
+    /** Takes the oldest element, or returns an empty Optional if the queue is empty. */
+    public USTM<Optional<A>> poll() {
+        return USTM.wrap(queue.poll()).map(OptionConverters::toJava);
+    }
+
+    /** Takes up to [max] elements, without retrying. */
+    public USTM<List<A>> takeUpTo(int max) {
+        return USTM.wrap(queue.takeUpTo(max)).map(CollectionConverters::asJava);
+    }
+
+    /** Takes all elements, without retrying. */
+    public USTM<List<A>> takeAll() {
+        return USTM.wrap(queue.takeAll()).map(CollectionConverters::asJava);
+    }
+
+    public USTM<Integer> size() {
+        return USTM.wrap(queue.size()).map(i -> (Integer) i);
+    }
+}
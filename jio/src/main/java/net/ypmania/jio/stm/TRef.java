@@ -0,0 +1,59 @@
+package net.ypmania.jio.stm;
+
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+import net.ypmania.jio.tuple.Tuple2;
+
+/** A transactional variable. Reading and changing it is only possible inside a transaction, and all changes of one
+    transaction become visible to other fibers at the same time.
+    @param A The type of the value held by the variable.
+*/
+public class TRef<A> {
+    public static <A> USTM<TRef<A>> make(A initial) {
+        return USTM.wrap(zio.stm.TRef.make(() -> initial)).map(TRef::new);
+    }
+
+    /** Creates the variable in a transaction of its own. */
+    public static <A> UJIO<Object, TRef<A>> makeCommit(A initial) {
+        return JIO.<Object,zio.stm.TRef<A>>tracedU(trace -> JIO.wrapU(zio.stm.TRef.makeCommit(() -> initial, trace))).map(TRef::new);
+    }
+
+    private final zio.stm.TRef<A> ref;
+
+    private TRef(zio.stm.TRef<A> ref) {
+        this.ref = ref;
+    }
+
+    public USTM<A> get() {
+        return USTM.wrap(ref.get());
+    }
+
+    public USTM<Object> set(A value) {
+        return USTM.wrap(ref.set(value));
+    }
+
+    public USTM<Object> update(UnaryOperator<A> fn) {
+        return USTM.wrap(ref.update(a -> fn.apply(a)));
+    }
+
+    /** Updates the value, returning the new one. */
+    public USTM<A> updateAndGet(UnaryOperator<A> fn) {
+        return USTM.wrap(ref.updateAndGet(a -> fn.apply(a)));
+    }
+
+    /** Updates the value, returning the previous one. */
+    public USTM<A> getAndUpdate(UnaryOperator<A> fn) {
+        return USTM.wrap(ref.getAndUpdate(a -> fn.apply(a)));
+    }
+
+    /** Computes a result and a new value from the current value. The function returns Tuple.of(result, newValue). */
+    public <B> USTM<B> modify(Function<? super A, Tuple2<B, A>> fn) {
+        return USTM.wrap(ref.<B>modify(a -> {
+            var t = fn.apply(a);
+            return new scala.Tuple2<B, A>(t._1(), t._2());
+        }));
+    }
+}
@@ -0,0 +1,58 @@
+package net.ypmania.jio.stm;
+
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.UJIO;
+
+/** A transactional semaphore. Acquiring permits retries the transaction until enough are available, so a transaction
+    can take permits from several semaphores at once, or none at all.
+*/
+public class TSemaphore {
+    public static USTM<TSemaphore> make(long permits) {
+        return USTM.wrap(zio.stm.TSemaphore.make(() -> permits)).map(TSemaphore::new);
+    }
+
+    /** Creates the semaphore in a transaction of its own. */
+    public static UJIO<Object, TSemaphore> makeCommit(long permits) {
+        return STM.atomically(make(permits));
+    }
+
+    private final zio.stm.TSemaphore semaphore;
+
+    private TSemaphore(zio.stm.TSemaphore semaphore) {
+        this.semaphore = semaphore;
+    }
+
+    public USTM<Object> acquire() {
+        return USTM.wrap(semaphore.acquire());
+    }
+
+    public USTM<Object> acquireN(long n) {
+        return USTM.wrap(semaphore.acquireN(n));
+    }
+
+    public USTM<Object> release() {
+        return USTM.wrap(semaphore.release());
+    }
+
+    public USTM<Object> releaseN(long n) {
+        return USTM.wrap(semaphore.releaseN(n));
+    }
+
+    public USTM<Long> available() {
+        return USTM.wrap(semaphore.available()).map(n -> (Long) n);
+    }
+
+    /** Runs the given effect while holding a permit, waiting for one to become available first. */
+    public <R,E,A> JIO<R,E,A> withPermit(JIO<R,E,A> jio) {
+        return JIO.<R,E,A>traced(trace ->
+            JIO.<R>environment().<A,E>flatMap(env -> JIO.wrap(semaphore.withPermit(JIO.unwrap(jio.provide(env)), trace)))
+        );
+    }
+
+    /** Runs the given effect while holding a permit, waiting for one to become available first. */
+    public <R,A> UJIO<R,A> withPermitU(UJIO<R,A> jio) {
+        return JIO.<R,A>tracedU(trace ->
+            JIO.<R>environment().flatMapU(env -> JIO.wrapU(semaphore.withPermit(JIO.unwrap(jio.provide(env)), trace)))
+        );
+    }
+}
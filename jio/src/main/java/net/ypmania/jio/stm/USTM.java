@@ -0,0 +1,66 @@
+package net.ypmania.jio.stm;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import net.ypmania.jio.UJIO;
+import scala.runtime.Nothing$;
+import zio.stm.ZSTM;
+
+/** A transaction over transactional variables (TRef, TMap, TQueue, TSemaphore) that does not fail. Like STM, it must
+    not have side effects, since it runs again if another fiber changes a variable that it read. Run it with
+    STM.atomically(), which returns a UJIO.
+    @param A The result of the transaction.
+*/
+public class USTM<A> {
+    /** Returns the ZIO transaction behind a USTM. This is meant for modules that build on JIO. */
+    @SuppressWarnings("unchecked")
+    public static <A> ZSTM<Object,Nothing$,A> unwrap(USTM<? extends A> stm) {
+        return (ZSTM<Object,Nothing$,A>) stm.stm;
+    }
+
+    public static <A> USTM<A> wrap(ZSTM<Object, Nothing$, ? extends A> stm) {
+        return new USTM<>(stm);
+    }
+
+    private final ZSTM<Object,Nothing$,A> stm;
+
+    @SuppressWarnings("unchecked")
+    USTM(ZSTM<Object, Nothing$, ? extends A> stm) {
+        this.stm = (ZSTM<Object,Nothing$,A>) stm;
+    }
+
+    /** Returns an effect that runs this transaction atomically. */
+    public UJIO<Object,A> commit() {
+        return STM.atomically(this);
+    }
+
+    public <U> USTM<U> map(Function<? super A, ? extends U> fn) {
+        return new USTM<>(stm.map(a -> fn.apply(a)));
+    }
+
+    /** Continues the transaction with the one returned by [fn]. */
+    public <U> USTM<U> flatMapU(Function<? super A, USTM<? extends U>> fn) {
+        return new USTM<>(stm.<Object,Nothing$,U>flatMap(a -> USTM.<U>unwrap(fn.apply(a))));
+    }
+
+    /** Continues the transaction with the one returned by [fn]. */
+    public <U,E> STM<E,U> flatMap(Function<? super A, STM<? extends E, ? extends U>> fn) {
+        return this.<E>toSTM().flatMap(fn);
+    }
+
+    public <B,O> USTM<O> zipWith(USTM<? extends B> that, BiFunction<? super A, ? super B, ? extends O> fn) {
+        return flatMapU(a -> that.map(b -> fn.apply(a, b)));
+    }
+
+    /** Runs [that] instead if this transaction retries, rolling back the changes of this one. */
+    public USTM<A> orElse(USTM<? extends A> that) {
+        return new USTM<>(stm.<Object,Nothing$,A>orElse(() -> unwrap(that)));
+    }
+
+    /** Returns this transaction as an STM, which never fails with E. */
+    @SuppressWarnings("unchecked")
+    public <E> STM<E,A> toSTM() {
+        return new STM<>((ZSTM<Object,E,A>) (ZSTM<?,?,?>) stm);
+    }
+}
@@ -9,4 +9,7 @@ public class Tuple {
         return new Tuple3<>(_1, _2, _3);
     }
 
+    public static <T1,T2,T3,T4> Tuple4<T1,T2,T3,T4> of(T1 _1, T2 _2, T3 _3, T4 _4) {
+        return new Tuple4<>(_1, _2, _3, _4);
+    }
 }
@@ -4,10 +4,35 @@ import de.tobiasroeser.lambdatest.junit5.FreeSpec;
 import net.ypmania.jio.tuple.Tuple;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import net.ypmania.ziojava.Clocks;
+import zio.Trace;
 
 public final class JIOTest extends FreeSpec {
     interface HasString {
@@ -27,6 +52,7 @@ public final class JIOTest extends FreeSpec {
 
     record Dependencies(String string, Integer integer) implements HasString, HasInteger {}
     record DependenciesWithScope(String string, Scope scope) implements HasString, Scope.Has {}
+    record WithDeadline(Deadline deadline) implements Deadline.Has {}
 
     private int failIntWithIOException() throws IOException {
         throw new IOException("simulated failure");
@@ -35,6 +61,69 @@ public final class JIOTest extends FreeSpec {
         throw new IOException("simulated failure");
     }
 
+    /** Hands out in-memory connections, remembering all of them. */
+    static final class FakeDatabase {
+        final ConcurrentLinkedQueue<FakeConnection> connections = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger ids = new AtomicInteger();
+
+        JIO<Scope, String, FakeConnection> connect() {
+            return JIO.acquireRelease(
+                JIO.succeedWith(() -> {
+                    var c = new FakeConnection(ids.incrementAndGet());
+                    connections.add(c);
+                    return c;
+                }).<String>toJIO(),
+                c -> JIO.succeedWith(() -> c.closed.set(true))
+            );
+        }
+    }
+
+    static final class FakeConnection {
+        final int id;
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        FakeConnection(int id) {
+            this.id = id;
+        }
+    }
+
+    /** Returns an effect that adds the time on the clock (in milliseconds) to [times]. */
+    private static UJIO<Object, Boolean> recordTime(ConcurrentLinkedQueue<Long> times) {
+        return JIO.wrapU(Clocks.nanoTime()).flatMapU(t -> JIO.succeedWith(() -> times.add(t / 1_000_000)));
+    }
+
+    /** Repeats a run that takes [runTime] on [schedule], four runs in total, against a TestClock. Returns the time (in
+     * milliseconds) at which each run started. */
+    private static List<Long> runStarts(Schedule<Object,Object,?> schedule, Duration runTime) throws Exception {
+        var starts = new ConcurrentLinkedQueue<Long>();
+        var run = recordTime(starts).flatMapU(u -> JIO.sleep(runTime));
+        var res = TestClocks.withTestClock(run.repeat(schedule.and(Schedule.recurs(3))).fork().flatMapU(fiber ->
+            TestClocks.adjust(ms(100)).flatMapU(u -> fiber.join())
+        ));
+        Runtime.runtime.unsafeRun(res).get();
+        return List.copyOf(starts);
+    }
+
+    /** Repeats a run on [schedule], at most [n] times, against a TestClock. The k-th run takes no time and returns k,
+     * which is the schedule's input. Returns how long the schedule waited before each repetition. */
+    private static List<Duration> delays(Schedule<Object, ? super Integer, ?> schedule, int n) throws Exception {
+        var starts = new ConcurrentLinkedQueue<Long>();
+        var run = JIO.wrapU(Clocks.nanoTime()).flatMapU(t -> JIO.succeedWith(() -> {
+            starts.add(t);
+            return starts.size();
+        }));
+        var res = TestClocks.withTestClock(run.repeat(schedule.and(Schedule.recurs(n))).fork().flatMapU(fiber ->
+            TestClocks.adjust(Duration.ofMinutes(1)).flatMapU(u -> fiber.join())
+        ));
+        Runtime.runtime.unsafeRun(res).get();
+        var times = List.copyOf(starts);
+        return IntStream.range(1, times.size()).mapToObj(i -> Duration.ofNanos(times.get(i) - times.get(i - 1))).toList();
+    }
+
+    private static Duration ms(long millis) {
+        return Duration.ofMillis(millis);
+    }
+
     {
         section("flatMap", () -> {
             test("should infer types from lambdas", () -> {
@@ -91,6 +180,24 @@ public final class JIOTest extends FreeSpec {
                 assertThat(Runtime.runtime.unsafeRun(effect).get(),
                     equalTo(Tuple.of(42, "hello")));
             });
+
+            test("zip3 and zip4 should create larger tuples", () -> {
+                var effect = JIO.succeed(1).zip3(JIO.succeed("two"), JIO.succeed(3.0))
+                    .zipWith(JIO.succeed(1).zip4(JIO.succeed(2), JIO.succeed(3), JIO.succeed(4)), Tuple::of);
+                assertThat(Runtime.runtime.unsafeRun(effect).get(),
+                    equalTo(Tuple.of(Tuple.of(1, "two", 3.0), Tuple.of(1, 2, 3, 4))));
+            });
+
+            test("zipWithLong and mapToLong should combine primitive results", () -> {
+                var effect = JIO.succeed(20L).zipWithLong(JIO.succeed(1), (a, b) -> a * 2 + b).mapToLong(n -> n * 10);
+                assertThat(Runtime.runtime.unsafeRun(effect).get(), equalTo(410L));
+            });
+
+            test("tuples should be usable as map keys", () -> {
+                var map = Map.of(Tuple.of(1, "a"), "tuple", Tuple.of(1, "a", 2.0), "triple");
+                assertThat(map.get(Tuple.of(1, "a")), equalTo("tuple"));
+                assertThat(map.get(Tuple.of(1, "a", 2.0)), equalTo("triple"));
+            });
         });
 
         section("attempt", () -> {
@@ -156,6 +263,609 @@ public final class JIOTest extends FreeSpec {
             });
         });
 
+        section("fiber", () -> {
+            test("join should return the result of a forked effect", () -> {
+                var res = JIO.succeed(21).map(i -> i * 2).fork().flatMapU(fiber -> fiber.join());
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("join should fail with the error of a forked effect", () -> {
+                var res = JIO.<String,Integer>fail("42").fork()
+                    .flatMap(fiber -> fiber.join())
+                    .catchAllU(s -> JIO.succeed(Integer.parseInt(s)));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("interrupt should stop a forked effect", () -> {
+                var res = JIO.never().fork().flatMapU(fiber -> fiber.interrupt());
+                assertThat(Runtime.runtime.unsafeRun(res).get(), instanceOf(Exit.Interrupted.class));
+            });
+
+            test("forkScoped should interrupt the fiber when the scope closes", () -> {
+                var res = JIO.scoped(JIO.forkScopedU(JIO.never())).flatMapU(fiber -> fiber.await());
+                assertThat(Runtime.runtime.unsafeRun(res).get(), instanceOf(Exit.Interrupted.class));
+            });
+        });
+
+        section("loops", () -> {
+            test("foreach should return results in order", () -> {
+                var res = JIO.foreachU(List.of(1, 2, 3), i -> JIO.succeed(i * 10));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(10, 20, 30)));
+            });
+
+            test("foreach should stop at the first failure", () -> {
+                var visited = new ConcurrentLinkedQueue<Integer>();
+                var res = JIO.<Object,String,Integer,Integer>foreach(List.of(1, 2, 3), i ->
+                    JIO.succeedWith(() -> visited.add(i)).<Integer,String>flatMap(u -> (i == 2) ? JIO.<String,Integer>fail("two") : JIO.succeed(i).<String>toJIO())
+                ).map(l -> "done");
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(s))).get(), equalTo("two"));
+                assertThat(List.copyOf(visited), equalTo(List.of(1, 2)));
+            });
+
+            test("collectAll should run effects in order", () -> {
+                var res = JIO.collectAllU(List.of(JIO.succeed("a"), JIO.succeed("b")));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of("a", "b")));
+            });
+
+            test("loop should collect the results of each iteration", () -> {
+                var res = JIO.loopU(1, i -> i <= 1000, i -> i * 10, i -> JIO.succeed("" + i));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of("1", "10", "100", "1000")));
+            });
+
+            test("iterate should be stack safe for 10M iterations", () -> {
+                var res = JIO.iterateU(0, i -> i < 10_000_000, i -> JIO.succeed(i + 1));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(10_000_000));
+            });
+
+            test("foreachDiscard should be stack safe for 10M lazily iterated elements", () -> {
+                var counter = new AtomicInteger();
+                Iterable<Integer> elements = () -> IntStream.range(0, 10_000_000).iterator();
+                var res = JIO.foreachDiscardU(elements, i -> JIO.succeedWith(counter::incrementAndGet));
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(counter.get(), equalTo(10_000_000));
+            });
+
+            test("foldLeft should be stack safe for 10M lazily iterated elements", () -> {
+                Iterable<Integer> elements = () -> IntStream.range(0, 10_000_000).iterator();
+                var res = JIO.foldLeftU(elements, 0L, (sum, i) -> JIO.succeed(sum + i));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(49_999_995_000_000L));
+            });
+        });
+
+        section("parallel", () -> {
+            test("foreachPar should return the results in order", () -> {
+                var res = JIO.foreachParU(List.of(1, 2, 3), i -> JIO.succeed(i * 2));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(2, 4, 6)));
+            });
+
+            test("foreachPar should fail if any effect fails", () -> {
+                var res = JIO.foreachPar(List.of(1, 2, 3), i -> i == 2 ? JIO.fail("failed " + i) : JIO.succeed(i))
+                    .catchAllU(s -> JIO.succeed(List.of()));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of()));
+            });
+
+            test("withParallelism should bound the number of concurrently running effects", () -> {
+                var running = new AtomicInteger();
+                var max = new AtomicInteger();
+                var res = JIO.foreachParU(IntStream.range(0, 20).boxed().toList(), i ->
+                    JIO.succeedWith(() -> max.accumulateAndGet(running.incrementAndGet(), Math::max))
+                        .flatMapU(n -> JIO.sleep(Duration.ofMillis(5)))
+                        .map(u -> running.decrementAndGet())
+                ).withParallelism(2);
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(max.get(), lessThanOrEqualTo(2));
+            });
+
+            test("collectAllPar should return all results in order", () -> {
+                var res = JIO.collectAllParU(List.of(JIO.succeed("a"), JIO.succeed("b")));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of("a", "b")));
+            });
+
+            test("mergeAllPar should combine all results", () -> {
+                var jios = IntStream.rangeClosed(1, 10).mapToObj(i -> JIO.succeed(i).<String>toJIO()).toList();
+                var res = JIO.mergeAllPar(jios, 0, Integer::sum).catchAllU(s -> JIO.succeed(-1));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(55));
+            });
+
+            test("zipPar should return both results", () -> {
+                var res = JIO.succeed(42).zipPar(JIO.succeed("hello"));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Tuple.of(42, "hello")));
+            });
+
+            test("race should return the first effect to complete", () -> {
+                var res = JIO.<Integer>never().race(JIO.succeed(42));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("raceFirst should return the first effect to fail", () -> {
+                var res = JIO.<Integer>never().<String>toJIO().raceFirst(JIO.fail("failed"))
+                    .catchAllU(s -> JIO.succeed(s.length()));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(6));
+            });
+        });
+
+        section("timeout", () -> {
+            test("timeout should return empty if the effect takes too long", () -> {
+                var res = JIO.never().timeout(Duration.ofMillis(10));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Optional.empty()));
+            });
+
+            test("timeout should return the result of a fast effect", () -> {
+                var res = JIO.succeed(42).timeout(Duration.ofSeconds(10));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Optional.of(42)));
+            });
+
+            test("timeoutFail should fail if the effect takes too long", () -> {
+                var res = JIO.<Integer>never().<String>toJIO()
+                    .timeoutFail("42", Duration.ofMillis(10))
+                    .catchAllU(s -> JIO.succeed(Integer.parseInt(s)));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("timeoutFailR should fail when the deadline from the environment passes", () -> {
+                var res = JIO.<WithDeadline,String,Integer>timeoutFailR(JIO.<Integer>never().<String>toJIO(), "42")
+                    .catchAllU(s -> JIO.succeed(Integer.parseInt(s)))
+                    .provide(new WithDeadline(new Deadline(Instant.now().plusMillis(10))));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("timed should observe the time on the effect's clock", () -> {
+                var histogram = net.ypmania.jio.metrics.Histogram.exponential("test_timed_test_clock", 0.001, 2, 16);
+                var res = TestClocks.withTestClock(JIO.sleep(ms(250)).timed(histogram).fork()
+                    .flatMapU(fiber -> TestClocks.adjust(ms(250)).flatMapU(u -> fiber.join()))
+                    .flatMapU(u -> histogram.snapshot()));
+                var snapshot = Runtime.runtime.unsafeRun(res).get();
+                assertThat(snapshot.count(), equalTo(1L));
+                assertThat(snapshot.value(), equalTo(0.25));
+            });
+
+            test("cancelling the future of unsafeRun should interrupt the effect", () -> {
+                var released = new CountDownLatch(1);
+                var res = JIO.scoped(JIO.acquireReleaseU(JIO.succeed(1), i -> JIO.succeedWith(() -> released.countDown()))
+                    .flatMapU(i -> JIO.never()));
+                Runtime.runtime.unsafeRun(res).cancel(true);
+                assertThat(released.await(10, TimeUnit.SECONDS), equalTo(true));
+            });
+        });
+
+        section("concurrency", () -> {
+            test("Ref.modify should return a result and update the value", () -> {
+                var res = Ref.make(41).flatMapU(ref ->
+                    ref.modify(i -> Tuple.of("was " + i, i + 1)).zipWith(ref.get(), (s, i) -> s + ", now " + i)
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo("was 41, now 42"));
+            });
+
+            test("Ref.update should not lose concurrent updates", () -> {
+                var res = Ref.make(0).flatMapU(ref ->
+                    JIO.foreachParU(IntStream.range(0, 1000).boxed().toList(), i -> ref.update(n -> n + 1)).flatMapU(u -> ref.get())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(1000));
+            });
+
+            test("Promise.await should wait for another fiber to complete the promise", () -> {
+                var res = Promise.<String,Integer>make().<Integer,String>flatMap(promise ->
+                    JIO.sleep(Duration.ofMillis(10)).flatMapU(u -> promise.succeed(42)).fork()
+                        .<Integer,String>flatMap(fiber -> promise.await())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(0))).get(), equalTo(42));
+            });
+
+            test("Queue.offerAll and takeUpTo should transfer elements in batches", () -> {
+                var res = Queue.<Integer>bounded(10).flatMapU(queue ->
+                    queue.offerAll(List.of(1, 2, 3, 4, 5)).flatMapU(rejected -> queue.takeUpTo(3))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(1, 2, 3)));
+            });
+
+            test("a dropping Queue should reject elements while full", () -> {
+                var res = Queue.<Integer>dropping(2).flatMapU(queue ->
+                    queue.offerAll(List.of(1, 2, 3)).zipWith(queue.takeAll(), (rejected, taken) -> Tuple.of(rejected, taken))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Tuple.of(List.of(3), List.of(1, 2))));
+            });
+
+            test("a sliding Queue should discard the oldest elements while full", () -> {
+                var res = Queue.<Integer>sliding(2).flatMapU(queue ->
+                    queue.offerAll(List.of(1, 2, 3)).flatMapU(rejected -> queue.takeAll())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(2, 3)));
+            });
+
+            test("Semaphore should limit the number of concurrent effects", () -> {
+                var running = new AtomicInteger();
+                var maxRunning = new AtomicInteger();
+                var res = Semaphore.make(2).flatMapU(semaphore ->
+                    JIO.foreachParU(IntStream.range(0, 20).boxed().toList(), i -> semaphore.withPermitU(
+                        JIO.succeedWith(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                            .flatMapU(n -> JIO.sleep(Duration.ofMillis(1)))
+                            .flatMapU(u -> JIO.succeedWith(() -> running.decrementAndGet()))
+                    ))
+                );
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+            });
+
+            test("Hub should deliver published elements to every subscriber", () -> {
+                var res = Hub.<Integer>bounded(10).flatMapU(hub -> JIO.scoped(
+                    hub.subscribe().zipWith(hub.subscribe(), Tuple::of).flatMapU(subs ->
+                        hub.publishAll(List.of(1, 2)).flatMapU(rejected ->
+                            subs._1().takeAll().zipWith(subs._2().takeAll(), Tuple::of)
+                        )
+                    )
+                ));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Tuple.of(List.of(1, 2), List.of(1, 2))));
+            });
+        });
+
+        section("pool", () -> {
+            test("a fixed pool should reuse its items, and close them when its scope closes", () -> {
+                var db = new FakeDatabase();
+                var res = JIO.scoped(Pool.fixed(db.connect(), 2).flatMap(pool ->
+                    JIO.scoped(pool.get()).repeat(Schedule.recurs(9))
+                )).as(true);
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(false))).get(), equalTo(true));
+                assertThat(db.connections.size(), equalTo(2));
+                assertThat(db.connections.stream().allMatch(c -> c.closed.get()), equalTo(true));
+            });
+
+            test("an invalidated item should be replaced instead of returned to the pool", () -> {
+                var db = new FakeDatabase();
+                var res = JIO.scoped(Pool.fixed(db.connect(), 1).flatMap(pool ->
+                    JIO.scoped(pool.get().flatMapU(c -> pool.invalidate(c).as(c)))
+                        .flatMap(first -> JIO.scoped(pool.get()).map(second -> Tuple.of(first.id, second.id)))
+                ));
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(Tuple.of(0, 0)))).get(), equalTo(Tuple.of(1, 2)));
+            });
+
+            test("a dynamic pool should not grow beyond its maximum size", () -> {
+                var db = new FakeDatabase();
+                var res = JIO.scoped(Pool.dynamic(db.connect(), 0, 3, Duration.ofMinutes(1)).flatMap(pool ->
+                    JIO.<Object,String,Integer,FakeConnection>foreachPar(IntStream.range(0, 10).boxed().toList(), i ->
+                        JIO.scoped(pool.get().flatMapU(c -> JIO.sleep(ms(5)).as(c)))
+                    ).flatMapU(cs -> pool.metrics())
+                )).map(m -> m.checkouts());
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(0L))).get(), equalTo(10L));
+                assertThat(db.connections.size(), lessThanOrEqualTo(3));
+            });
+
+            test("metrics should count items in use and checkouts", () -> {
+                var db = new FakeDatabase();
+                var res = JIO.scoped(Pool.fixed(db.connect(), 2).flatMap(pool ->
+                    JIO.scoped(pool.get().flatMapU(c -> pool.metrics())).flatMapU(during ->
+                        pool.metrics().map(after -> List.of(during.inUse(), during.checkouts(), after.inUse(), after.checkouts()))
+                    )
+                ));
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(List.<Long>of()))).get(), equalTo(List.of(1L, 1L, 0L, 1L)));
+            });
+        });
+
+        section("cache", () -> {
+            test("memoize should run the effect only once", () -> {
+                var counter = new AtomicInteger();
+                var res = JIO.succeedWith(counter::incrementAndGet).memoize().flatMapU(m -> m.zipWith(m, Integer::sum));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+                assertThat(counter.get(), equalTo(1));
+            });
+
+            test("cached should remember the result until it expires", () -> {
+                var counter = new AtomicInteger();
+                var res = JIO.succeedWith(counter::incrementAndGet).cached(ms(50)).flatMapU(c ->
+                    c.zip(c).flatMapU(first -> JIO.sleep(ms(100)).flatMapU(u -> c))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+            });
+
+            test("cachedInvalidate should refresh the result after invalidation", () -> {
+                var counter = new AtomicInteger();
+                var res = JIO.succeedWith(counter::incrementAndGet).cachedInvalidate(Duration.ofMinutes(1)).flatMapU(c ->
+                    c._1().flatMapU(first -> c._2()).flatMapU(u -> c._1())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+            });
+
+            test("Cache should look up concurrent gets for the same key only once", () -> {
+                var lookups = new AtomicInteger();
+                var res = Cache.make(10, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.sleep(ms(10)).flatMapU(u -> JIO.succeedWith(() -> lookups.incrementAndGet() * k)).<String>toJIO()
+                ).<Cache.Stats,String>flatMap(cache ->
+                    JIO.<Object,String,Integer,Integer>foreachPar(IntStream.range(0, 10).boxed().toList(), i -> cache.get(2))
+                        .flatMapU(values -> cache.stats())
+                );
+                var stats = Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.<Cache.Stats>succeed(null))).get();
+                assertThat(lookups.get(), equalTo(1));
+                assertThat(stats, equalTo(new Cache.Stats(9, 1, 0, 1)));
+            });
+
+            test("Cache should evict the least recently used key", () -> {
+                var lookups = new ConcurrentLinkedQueue<Integer>();
+                var res = Cache.make(2, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.succeedWith(() -> lookups.add(k)).as(k).<String>toJIO()
+                ).<Cache.Stats,String>flatMap(cache ->
+                    cache.get(1).flatMap(v -> cache.get(2)).flatMap(v -> cache.get(1)).flatMap(v -> cache.get(3))
+                        .flatMap(v -> cache.get(1)).flatMap(v -> cache.get(2)).flatMapU(v -> cache.stats())
+                );
+                var stats = Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.<Cache.Stats>succeed(null))).get();
+                assertThat(List.copyOf(lookups), equalTo(List.of(1, 2, 3, 2)));
+                assertThat(stats, equalTo(new Cache.Stats(2, 4, 2, 2)));
+            });
+
+            test("Cache should look up expired keys again", () -> {
+                var lookups = new AtomicInteger();
+                var res = Cache.make(10, ms(1), (Integer k) ->
+                    JIO.succeedWith(() -> lookups.incrementAndGet()).<String>toJIO()
+                ).<Integer,String>flatMap(cache ->
+                    cache.get(1).flatMapU(v -> JIO.sleep(ms(20))).flatMap(u -> cache.get(1))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(0))).get(), equalTo(2));
+            });
+
+            test("Cache should not remember failed lookups", () -> {
+                var lookups = new AtomicInteger();
+                var res = Cache.make(10, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.succeedWith(() -> lookups.incrementAndGet()).<String>toJIO().flatMap(n -> (n == 1) ? JIO.<String,Integer>fail("first") : JIO.succeed(n).<String>toJIO())
+                ).flatMapU(cache ->
+                    cache.get(1).catchAllU(s -> cache.get(1).catchAllU(s2 -> JIO.succeed(0)))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+            });
+
+            test("Cache should not remember lookups that die", () -> {
+                var lookups = new AtomicInteger();
+                var res = Cache.make(10, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.succeedWith(() -> {
+                        if (lookups.incrementAndGet() == 1) {
+                            throw new IllegalStateException("first");
+                        }
+                        return lookups.get();
+                    }).<String>toJIO()
+                ).flatMapU(cache ->
+                    cache.get(1).exit().flatMapU(first -> cache.get(1).catchAllU(s -> JIO.succeed(0)))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+            });
+
+            test("interrupting the get that looks up a key should not keep other gets from getting it", () -> {
+                var res = Cache.make(10, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.sleep(ms(10)).as(k * 10).<String>toJIO()
+                ).<Optional<Integer>,String>flatMap(cache ->
+                    cache.get(1).fork()
+                        .flatMapU(fiber -> JIO.yieldNow().flatMapU(u -> fiber.interrupt()))
+                        .flatMap(exit -> cache.get(1).timeout(Duration.ofSeconds(10)))
+                );
+                // A single thread makes sure the first get has claimed the key, but not looked it up, when it's interrupted.
+                var singleThreaded = Runtime.builder().parallelism(1).build();
+                try {
+                    var value = singleThreaded.unsafeRun(res.catchAllU(s -> JIO.succeed(Optional.<Integer>empty()))).get();
+                    assertThat(value, equalTo(Optional.of(10)));
+                } finally {
+                    singleThreaded.shutdown();
+                }
+            });
+
+            test("Cache lookups should use the environment given to make", () -> {
+                var res = Cache.make(10, Duration.ofMinutes(1), (Integer k) ->
+                    JIO.<HasString>environment().map(env -> env.string() + k).<String>toJIO()
+                ).<String,String>flatMap(cache -> cache.get(1)).provide(new Dependencies("answer", 42));
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(""))).get(), equalTo("answer1"));
+            });
+        });
+
+        section("request", () -> {
+            test("requests of one foreachPar should be deduplicated and loaded in a single batch", () -> {
+                var batches = new ConcurrentLinkedQueue<List<Integer>>();
+                var res = DataSource.<Object,String,Integer,String>make(keys -> JIO.succeedWith(() -> {
+                    batches.add(keys);
+                    return keys.stream().filter(k -> k != 3).collect(Collectors.toMap(k -> k, k -> "v" + k));
+                }).<String>toJIO()).<List<Optional<String>>,String>flatMap(ds ->
+                    JIO.<Object,String,Integer,Optional<String>>foreachPar(List.of(1, 2, 1, 3), k -> JIO.request(k, ds))
+                );
+                // A single thread makes sure all forked requests are registered before the first one dispatches.
+                var singleThreaded = Runtime.builder().parallelism(1).build();
+                try {
+                    var values = singleThreaded.unsafeRun(res.catchAllU(s -> JIO.succeed(List.<Optional<String>>of()))).get();
+                    assertThat(values, equalTo(List.of(Optional.of("v1"), Optional.of("v2"), Optional.of("v1"), Optional.<String>empty())));
+                    assertThat(List.copyOf(batches), equalTo(List.of(List.of(1, 2, 3))));
+                } finally {
+                    singleThreaded.shutdown();
+                }
+            });
+
+            test("keys should only be loaded once per data source", () -> {
+                var batches = new ConcurrentLinkedQueue<List<Integer>>();
+                var res = DataSource.<Object,String,Integer,Integer>make(keys -> JIO.succeedWith(() -> {
+                    batches.add(keys);
+                    return keys.stream().collect(Collectors.toMap(k -> k, k -> k * 10));
+                }).<String>toJIO()).<Optional<Integer>,String>flatMap(ds ->
+                    JIO.request(1, ds).flatMap(a -> JIO.request(1, ds)).flatMap(b -> JIO.request(2, ds))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(Optional.<Integer>empty()))).get(), equalTo(Optional.of(20)));
+                assertThat(List.copyOf(batches), equalTo(List.of(List.of(1), List.of(2))));
+            });
+
+            test("a failing batch should fail its requests", () -> {
+                var res = DataSource.<Object,String,Integer,String>make(keys -> JIO.fail("unavailable")).<List<Optional<String>>,String>flatMap(ds ->
+                    JIO.<Object,String,Integer,Optional<String>>foreachPar(List.of(1, 2), k -> JIO.request(k, ds))
+                ).map(values -> "loaded");
+                assertThat(Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(s))).get(), equalTo("unavailable"));
+            });
+
+            test("interrupting the first request of a batch should not keep the batch from loading", () -> {
+                var res = DataSource.<Object,String,Integer,String>make(keys ->
+                    JIO.succeed(keys.stream().collect(Collectors.toMap(k -> k, k -> "v" + k))).<String>toJIO()
+                ).<Optional<Optional<String>>,String>flatMap(ds ->
+                    JIO.request(1, ds).fork()
+                        .flatMapU(fiber -> JIO.yieldNow().flatMapU(u -> fiber.interrupt()))
+                        .flatMap(exit -> JIO.request(1, ds).timeout(Duration.ofSeconds(10)))
+                );
+                // A single thread makes sure the first request has claimed the key, but not loaded it, when it's interrupted.
+                var singleThreaded = Runtime.builder().parallelism(1).build();
+                try {
+                    var value = singleThreaded.unsafeRun(res.catchAllU(s -> JIO.succeed(Optional.<Optional<String>>empty()))).get();
+                    assertThat(value, equalTo(Optional.of(Optional.of("v1"))));
+                } finally {
+                    singleThreaded.shutdown();
+                }
+            });
+
+            test("a batch load that throws should make its requests die", () -> {
+                var res = DataSource.<Object,String,Integer,String>make(keys -> { throw new IllegalStateException("broken"); }).flatMapU(ds ->
+                    JIO.<Object,String,Integer,Optional<String>>foreachPar(List.of(1, 2), k -> JIO.request(k, ds)).exit().timeout(Duration.ofSeconds(10))
+                ).map(exit -> exit.map(e -> (e instanceof Exit.Die<String,List<Optional<String>>> die) ? die.defect().getMessage() : e.toString()));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(Optional.of("broken")));
+            });
+        });
+
+        section("interop", () -> {
+            test("fromCompletionStage should wait for the stage to complete", () -> {
+                var res = JIO.fromCompletionStage(() -> CompletableFuture.supplyAsync(() -> 42)).catchAllU(x -> JIO.succeed(0));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("fromCompletionStage should fail with the cause of a failed stage", () -> {
+                var res = JIO.<Integer>fromCompletionStage(() -> CompletableFuture.supplyAsync(() -> { throw new IllegalArgumentException("42"); }))
+                    .catchAllU(x -> JIO.succeed(x.getMessage()));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo("42"));
+            });
+
+            test("fromCompletionStage should cancel the future when interrupted", () -> {
+                var future = new CompletableFuture<Integer>();
+                var res = JIO.fromCompletionStage(() -> future).timeout(Duration.ofMillis(10)).catchAllU(x -> JIO.succeed(Optional.empty()));
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(future.isCancelled(), equalTo(true));
+            });
+
+            test("async should complete when the callback is invoked", () -> {
+                var res = JIO.<String,Integer>async(cb -> Thread.ofVirtual().start(() -> cb.succeed(42)))
+                    .catchAllU(s -> JIO.succeed(0));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("async should fail when the callback fails", () -> {
+                var res = JIO.<String,Integer>async(cb -> cb.fail("42"))
+                    .catchAllU(s -> JIO.succeed(Integer.parseInt(s)));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+            });
+
+            test("asyncInterrupt should run the canceller when interrupted", () -> {
+                var cancelled = new CountDownLatch(1);
+                var res = JIO.<String,Integer>asyncInterrupt(cb -> cancelled::countDown).timeout(Duration.ofMillis(10));
+                Runtime.runtime.unsafeRun(res.catchAllU(s -> JIO.succeed(Optional.empty()))).get();
+                assertThat(cancelled.await(10, TimeUnit.SECONDS), equalTo(true));
+            });
+
+            test("toCompletionStage should complete with the result of the effect", () -> {
+                var res = JIO.succeed(21).map(i -> i * 2).toCompletionStage();
+                assertThat(Runtime.runtime.unsafeRun(res).get().toCompletableFuture().get(), equalTo(42));
+            });
+
+            test("toCompletionStage should complete exceptionally if the effect fails", () -> {
+                var res = JIO.<IOException,Integer>fail(new IOException("42")).toCompletionStage();
+                var stage = Runtime.runtime.unsafeRun(res).get().toCompletableFuture();
+                var x = assertThrows(ExecutionException.class, () -> stage.get());
+                assertThat(x.getCause().getMessage(), equalTo("42"));
+            });
+
+            test("attemptBlocking should run on the blocking thread pool", () -> {
+                var res = JIO.attemptBlocking(() -> Thread.currentThread().getName()).catchAllU(x -> JIO.succeed(""));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), containsString("blocking"));
+            });
+        });
+
+        section("runtime", () -> {
+            test("unsafeRunSync should return the result on the calling thread", () -> {
+                var res = JIO.succeed("15").map(s -> Integer.parseInt(s));
+                assertThat(Runtime.runtime.unsafeRunSync(res), equalTo(15));
+            });
+
+            test("toCompletionStage should fail the stage with a failed effect's error", () -> {
+                var stage = Runtime.runtime.unsafeRun(JIO.fail(new IOException("simulated failure")).toCompletionStage()).get();
+                var thrown = assertThrows(ExecutionException.class, () -> stage.toCompletableFuture().get());
+                assertThat(thrown.getCause(), instanceOf(IOException.class));
+                assertThat(thrown.getCause().getMessage(), equalTo("simulated failure"));
+            });
+
+            test("unsafeRun should fail the future with a defect", () -> {
+                var future = Runtime.runtime.unsafeRun(JIO.succeed("15").map(s -> {
+                    throw new IllegalArgumentException("simulated defect");
+                }));
+                var thrown = assertThrows(ExecutionException.class, () -> future.get());
+                assertThat(thrown.getCause().getMessage(), equalTo("simulated defect"));
+            });
+
+            test("builder should create a runtime with its own executor and flags", () -> {
+                var threads = new ConcurrentLinkedQueue<String>();
+                var executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "custom-runtime"));
+                var custom = Runtime.builder().executor(executor).disable(Runtime.Flag.FIBER_ROOTS).build();
+                try {
+                    var res = JIO.succeedWith(() -> threads.add(Thread.currentThread().getName())).as(42);
+                    assertThat(custom.unsafeRun(res).get(), equalTo(42));
+                    assertThat(threads.peek(), equalTo("custom-runtime"));
+                } finally {
+                    custom.shutdown();
+                    executor.shutdown();
+                }
+            });
+
+            test("shutdown should shut down the executor that the builder created", () -> {
+                var pooled = Runtime.builder().parallelism(1).build();
+                Thread worker;
+                try {
+                    worker = pooled.unsafeRun(JIO.sleep(ms(1)).flatMapU(u -> JIO.succeedWith(Thread::currentThread))).get();
+                } finally {
+                    pooled.shutdown();
+                }
+                worker.join(5000);
+                assertThat(worker.isAlive(), equalTo(false));
+            });
+        });
+
+        section("tracing", () -> {
+            test("should not capture traces unless enabled", () -> {
+                assertThat(Tracing.trace(), equalTo(Trace.empty()));
+            });
+
+            test("should capture the caller's location", () -> {
+                Tracing.setEnabled(true);
+                try {
+                    assertThat(Tracing.trace().toString(), containsString("JIOTest.java"));
+                } finally {
+                    Tracing.setEnabled(false);
+                }
+            });
+
+            test("should capture the trace of a lambda only once", () -> {
+                Tracing.setEnabled(true);
+                try {
+                    Function<Integer, Integer> fn = i -> i + 1;
+                    assertThat(Tracing.trace(fn), sameInstance(Tracing.trace(fn)));
+                    assertThat(Tracing.trace(fn).toString(), containsString("JIOTest.java"));
+                } finally {
+                    Tracing.setEnabled(false);
+                }
+            });
+
+            test("traced should pass the caller's location to the effect it builds", () -> {
+                Tracing.setEnabled(true);
+                try {
+                    var res = JIO.<Object,String>tracedU(trace -> JIO.succeed(trace.toString()));
+                    assertThat(Runtime.runtime.unsafeRun(res).get(), containsString("JIOTest.java"));
+                } finally {
+                    Tracing.setEnabled(false);
+                }
+            });
+
+            test("traced effects should run as usual", () -> {
+                Tracing.setEnabled(true);
+                try {
+                    var res = JIO.succeed(20).flatMapU(i -> JIO.succeed(i * 2)).zipWith(JIO.succeed(2), Integer::sum);
+                    assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(42));
+                } finally {
+                    Tracing.setEnabled(false);
+                }
+            });
+        });
+
         section("schedule", () -> {
             test("repeat should repeat", () -> {
                 var counter = new AtomicInteger();
@@ -177,6 +887,330 @@ public final class JIOTest extends FreeSpec {
                 assertThat(counter.get(), equalTo(3));
             });
 
+            test("exponential should double its delay", () -> {
+                assertThat(delays(Schedule.exponential(ms(10)), 4), equalTo(List.of(ms(10), ms(20), ms(40), ms(80))));
+            });
+
+            test("fibonacci should grow its delay as the fibonacci sequence", () -> {
+                assertThat(delays(Schedule.fibonacci(ms(10)), 5), equalTo(List.of(ms(10), ms(10), ms(20), ms(30), ms(50))));
+            });
+
+            test("upTo should stop once the duration has passed", () -> {
+                assertThat(delays(Schedule.spaced(ms(10)).upTo(ms(30)), 5), equalTo(List.of(ms(10), ms(10), ms(10))));
+            });
+
+            test("jittered should keep delays within bounds", () -> {
+                for (var d: delays(Schedule.spaced(ms(100)).jittered(), 100)) {
+                    assertThat(d.compareTo(ms(80)) >= 0 && d.compareTo(ms(120)) <= 0, equalTo(true));
+                }
+            });
+
+            test("whileInput should stop when the input no longer matches", () -> {
+                assertThat(delays(Schedule.spaced(ms(10)).<Integer>whileInput(i -> i < 3), 4), equalTo(List.of(ms(10), ms(10))));
+            });
+
+            test("whileOutput should stop when the output no longer matches", () -> {
+                assertThat(delays(Schedule.exponential(ms(10)).whileOutput(d -> d.compareTo(ms(30)) < 0), 4), equalTo(List.of(ms(10), ms(20))));
+            });
+
+            test("and should use the longer delay", () -> {
+                assertThat(delays(Schedule.exponential(ms(10)).and(Schedule.spaced(ms(25))), 4), equalTo(List.of(ms(25), ms(25), ms(40), ms(80))));
+            });
+
+            test("and should stop when either schedule stops", () -> {
+                assertThat(delays(Schedule.spaced(ms(10)).and(Schedule.recurs(2)), 4), equalTo(List.of(ms(10), ms(10))));
+            });
+
+            test("or should use the shorter delay", () -> {
+                assertThat(delays(Schedule.exponential(ms(10)).or(Schedule.spaced(ms(25))), 4), equalTo(List.of(ms(10), ms(20), ms(25), ms(25))));
+            });
+
+            test("andThen should continue with the second schedule", () -> {
+                var schedule = Schedule.exponential(ms(10)).whileOutput(d -> d.compareTo(ms(30)) < 0)
+                    .andThen(Schedule.fibonacci(ms(100)));
+                assertThat(delays(schedule, 5), equalTo(List.of(ms(10), ms(20), ms(100), ms(100), ms(200))));
+            });
+
+            test("fixed should keep its interval regardless of how long each run takes", () -> {
+                assertThat(runStarts(Schedule.fixed(ms(10)), ms(3)), equalTo(List.of(0L, 13L, 23L, 33L)));
+            });
+
+            test("fixed should run right away after a run that took longer than the interval", () -> {
+                assertThat(runStarts(Schedule.fixed(ms(10)), ms(15)), equalTo(List.of(0L, 25L, 40L, 55L)));
+            });
+
+            test("windowed should wait for the end of the window that a run ended in", () -> {
+                assertThat(runStarts(Schedule.windowed(ms(10)), ms(15)), equalTo(List.of(0L, 25L, 45L, 65L)));
+            });
+
+            test("retry should back off exponentially", () -> {
+                var counter = new AtomicInteger();
+                var effect = JIO
+                    .succeedWith(() -> counter.incrementAndGet())
+                    .flatMap(d -> JIO.fail(42))
+                    .retry(Schedule.exponential(ms(1)).and(Schedule.recurs(3)))
+                    .catchAllU(i -> JIO.empty());
+                Runtime.runtime.unsafeRun(effect).get();
+                assertThat(counter.get(), equalTo(4));
+            });
+        });
+
+        section("throttling", () -> {
+            test("Gcra should admit a burst, and then one permit per interval", () -> {
+                var gcra = new RateLimiter.Gcra(ms(100).toNanos(), ms(200).toNanos());
+                long due = Long.MIN_VALUE;
+                var delays = new ArrayList<Duration>();
+                for (int i = 0; i < 6; i++) {
+                    var reserved = gcra.reserve(due, 0);
+                    delays.add(Duration.ofNanos(reserved.delay()));
+                    due = reserved.next();
+                }
+                assertThat(delays, equalTo(List.of(ms(0), ms(0), ms(0), ms(100), ms(200), ms(300))));
+            });
+
+            test("Gcra should not let idle time build up more than a burst", () -> {
+                var gcra = new RateLimiter.Gcra(ms(100).toNanos(), ms(200).toNanos());
+                long due = Long.MIN_VALUE;
+                for (int i = 0; i < 3; i++) {
+                    due = gcra.reserve(due, 0).next();
+                }
+                var delays = new ArrayList<Duration>();
+                for (int i = 0; i < 4; i++) {
+                    var reserved = gcra.reserve(due, ms(1000).toNanos());
+                    delays.add(Duration.ofNanos(reserved.delay()));
+                    due = reserved.next();
+                }
+                assertThat(delays, equalTo(List.of(ms(0), ms(0), ms(0), ms(100))));
+            });
+
+            test("RateLimiter.tryAcquire should only admit the burst", () -> {
+                var res = RateLimiter.make(1, Duration.ofHours(1), 3).flatMapU(limiter ->
+                    JIO.foreachU(List.of(1, 2, 3, 4, 5), i -> limiter.tryAcquire())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(true, true, true, false, false)));
+            });
+
+            test("RateLimiter.make should reject limits that admit nothing", () -> {
+                assertThrows(IllegalArgumentException.class, () -> RateLimiter.make(0, ms(10), 1));
+                assertThrows(IllegalArgumentException.class, () -> RateLimiter.make(1, ms(10), 0));
+                assertThrows(IllegalArgumentException.class, () -> RateLimiter.make(1, Duration.ZERO, 1));
+            });
+
+            test("acquire should admit a burst right away, and then one permit per interval", () -> {
+                var res = TestClocks.withTestClock(RateLimiter.make(1, ms(10), 3).flatMapU(limiter ->
+                    JIO.foreachU(List.of(1, 2, 3, 4, 5), i -> limiter.acquire().flatMapU(u -> JIO.wrapU(Clocks.nanoTime())).map(t -> t / 1_000_000))
+                        .fork()
+                        .flatMapU(fiber -> TestClocks.adjust(ms(100)).flatMapU(u -> fiber.join()))
+                ));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of(0L, 0L, 0L, 10L, 20L)));
+            });
+
+            test("throttled should admit waiting effects one interval apart, in the order they arrived", () -> {
+                var admitted = new ConcurrentLinkedQueue<String>();
+                var res = TestClocks.withTestClock(RateLimiter.make(1, ms(10), 1).flatMapU(limiter ->
+                    JIO.foreachU(List.of(1, 2, 3, 4, 5), i ->
+                        JIO.wrapU(Clocks.nanoTime()).throttled(limiter)
+                            .flatMapU(arrived -> JIO.wrapU(Clocks.nanoTime()))
+                            .flatMapU(t -> JIO.succeedWith(() -> admitted.add(i + "@" + t / 1_000_000)))
+                            .fork()
+                            .flatMapU(fiber -> JIO.yieldNow().as(fiber))
+                    ).flatMapU(fibers -> TestClocks.adjust(ms(100)).flatMapU(u -> JIO.foreachU(fibers, fiber -> fiber.join())))
+                ));
+                // A single thread lets every forked effect take its turn before the next one is forked.
+                var singleThreaded = Runtime.builder().parallelism(1).build();
+                try {
+                    singleThreaded.unsafeRun(res).get();
+                } finally {
+                    singleThreaded.shutdown();
+                }
+                assertThat(List.copyOf(admitted), equalTo(List.of("1@0", "2@10", "3@20", "4@30", "5@40")));
+            });
+
+            test("withMaxConcurrency should run at most the bulkhead's number of effects at the same time", () -> {
+                var current = new AtomicInteger();
+                var max = new AtomicInteger();
+                var res = Bulkhead.make(2).flatMapU(bulkhead ->
+                    JIO.foreachParU(IntStream.range(0, 20).boxed().toList(), i ->
+                        JIO.succeedWith(() -> max.accumulateAndGet(current.incrementAndGet(), Math::max))
+                            .flatMapU(u -> JIO.sleep(ms(2)))
+                            .flatMapU(u -> JIO.succeedWith(current::decrementAndGet))
+                            .withMaxConcurrency(bulkhead)
+                    ).flatMapU(u -> bulkhead.stats())
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(new Bulkhead.Stats(0, 0, 0)));
+                assertThat(max.get(), equalTo(2));
+            });
+
+            test("Bulkhead.tryRun should reject effects while the bulkhead is full", () -> {
+                var res = Bulkhead.make(1).flatMapU(bulkhead ->
+                    Promise.<String,Object>make().flatMapU(started -> Promise.<String,Object>make().flatMapU(release -> {
+                        var holding = bulkhead.run(started.succeed(null).<Object,String>flatMap(u -> release.await()));
+                        JIO<Object,String,Integer> tries = holding.fork().<Integer,String>flatMap(fiber ->
+                            started.await().flatMap(u -> bulkhead.tryRun(JIO.<Integer>succeed(1).<String>toJIO())).flatMap(whileFull ->
+                                release.succeed(null).<Object,String>flatMap(u -> fiber.join())
+                                    .flatMap(u -> bulkhead.tryRun(JIO.<Integer>succeed(2).<String>toJIO()))
+                                    .map(afterwards -> whileFull.orElse(0) * 10 + afterwards.orElse(0))
+                            )
+                        );
+                        return tries.catchAllU(e -> JIO.succeed(-1));
+                    }))
+                );
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(2));
+            });
+        });
+
+        section("jobs", () -> {
+            test("should run a job on its schedule until the scope closes", () -> {
+                var starts = new ConcurrentLinkedQueue<Long>();
+                var res = TestClocks.withTestClock(JIO.scoped(JobScheduler.make().flatMapU(scheduler ->
+                    scheduler.add("tick", recordTime(starts), Schedule.spaced(ms(10)))
+                ).flatMapU(job -> TestClocks.adjust(ms(35)))).flatMapU(u -> TestClocks.adjust(ms(50))));
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(List.copyOf(starts), equalTo(List.of(0L, 10L, 20L, 30L)));
+            });
+
+            test("should skip runs that would overlap", () -> {
+                var res = TestClocks.withTestClock(JIO.scoped(JobScheduler.make().flatMapU(scheduler ->
+                    scheduler.add("slow", JIO.sleep(ms(30)), Schedule.spaced(ms(7)))
+                ).flatMapU(job -> TestClocks.adjust(ms(90)).flatMapU(u -> job.stats()))));
+                // Recurrences at 0, 7, ..., 84: runs start at 0, 35 and 70, and the other ten are skipped.
+                var stats = Runtime.runtime.unsafeRun(res).get();
+                assertThat(stats, equalTo(new JobScheduler.Stats(2, 10, 1, ms(60), ms(30), ms(30))));
+            });
+
+            test("should run up to maxConcurrency runs of a job at the same time", () -> {
+                var starts = new ConcurrentLinkedQueue<Long>();
+                var run = recordTime(starts).flatMapU(u -> JIO.sleep(ms(30)));
+                var res = TestClocks.withTestClock(JIO.scoped(JobScheduler.make().flatMapU(scheduler ->
+                    scheduler.add("parallel", run, Schedule.spaced(ms(7)), 3)
+                ).flatMapU(job -> TestClocks.adjust(ms(60)))));
+                Runtime.runtime.unsafeRun(res).get();
+                // Recurrences at 21, 28, 56 find three runs going, and are skipped.
+                assertThat(List.copyOf(starts), equalTo(List.of(0L, 7L, 14L, 35L, 42L, 49L)));
+            });
+
+            test("cancel should stop scheduling new runs, and remove the job", () -> {
+                var starts = new ConcurrentLinkedQueue<Long>();
+                var res = TestClocks.withTestClock(JIO.scoped(JobScheduler.make().flatMapU(scheduler ->
+                    scheduler.add("tick", recordTime(starts), Schedule.spaced(ms(10)))
+                        .flatMapU(job -> TestClocks.adjust(ms(25)).flatMapU(u -> job.cancel()))
+                        .flatMapU(u -> TestClocks.adjust(ms(50)))
+                        .flatMapU(u -> scheduler.jobs())
+                )));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of()));
+                assertThat(List.copyOf(starts), equalTo(List.of(0L, 10L, 20L)));
+            });
+
+            test("should spread the start of jobs with similar names", () -> {
+                var spread = Duration.ofSeconds(10);
+                var delays = IntStream.range(0, 10).mapToObj(i -> JobScheduler.startDelay("refresh-" + i, spread)).toList();
+                assertThat(Set.copyOf(delays).size(), equalTo(10));
+                assertThat(delays.stream().allMatch(d -> d.compareTo(spread) < 0), equalTo(true));
+                assertThat(JobScheduler.startDelay("refresh-0", Duration.ZERO), equalTo(Duration.ZERO));
+            });
+        });
+
+        section("layer", () -> {
+            test("provideLayer should run an effect with the layer's output", () -> {
+                var greeting = Layer.<String,String>succeed("Hello")
+                    .to(Layer.<String,String,String>fromJIO(JIO.<String>environment().map(s -> s + ", world")));
+                var res = JIO.<String>environment().provideLayer(greeting).catchAllU(e -> JIO.succeed(e));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo("Hello, world"));
+            });
+
+            test("should fail if building a layer fails", () -> {
+                var broken = Layer.<Object,String,String>fromJIO(JIO.<String,String>fail("no config"));
+                var res = JIO.<String>environment().provideLayer(broken).catchAllU(e -> JIO.succeed("failed: " + e));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo("failed: no config"));
+            });
+
+            test("should build a layer that is shared by several layers only once", () -> {
+                var built = new AtomicInteger();
+                var config = Layer.<Object,String,Integer>fromJIO(JIO.succeedWith(built::incrementAndGet));
+                var doubled = config.to(Layer.<Integer,String,Integer>fromJIO(JIO.<Integer>environment().map(i -> i * 2)));
+                var tripled = config.to(Layer.<Integer,String,Integer>fromJIO(JIO.<Integer>environment().map(i -> i * 3)));
+                var res = JIO.<Integer>environment().provideLayer(doubled.and(tripled, Integer::sum)).catchAllU(e -> JIO.succeed(-1));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(5));
+                assertThat(built.get(), equalTo(1));
+            });
+
+            test("should build a fresh layer every time it occurs", () -> {
+                var built = new AtomicInteger();
+                var config = Layer.<Object,String,Integer>fromJIO(JIO.succeedWith(built::incrementAndGet)).fresh();
+                var res = JIO.<Integer>environment().provideLayer(config.and(config, Integer::sum)).catchAllU(e -> JIO.succeed(-1));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(3));
+                assertThat(built.get(), equalTo(2));
+            });
+
+            test("and should build both layers in parallel", () -> {
+                // Each layer waits for the other one to have started, so building them one after the other would hang.
+                var res = Promise.<String,Object>make().flatMapU(left -> Promise.<String,Object>make().flatMapU(right -> {
+                    var a = Layer.<Object,String,String>fromJIO(left.succeed(null).flatMap(u -> right.await()).map(u -> "a"));
+                    var b = Layer.<Object,String,String>fromJIO(right.succeed(null).flatMap(u -> left.await()).map(u -> "b"));
+                    return JIO.<String>environment().provideLayer(a.and(b, (x, y) -> x + y)).catchAllU(e -> JIO.succeed(e));
+                }));
+                assertThat(Runtime.runtime.unsafeRun(res).get(1, TimeUnit.SECONDS), equalTo("ab"));
+            });
+
+            test("should release scoped layers in reverse order, after the effect completes", () -> {
+                var log = new ConcurrentLinkedQueue<String>();
+                Function<String, Layer<Object,String,String>> resource = name -> Layer.scopedU(in -> JIO.acquireReleaseU(
+                    JIO.succeedWith(() -> { log.add("open " + name); return name; }),
+                    n -> JIO.succeedWith(() -> log.add("close " + n))
+                ));
+                var layer = resource.apply("db").to(resource.apply("service"));
+                var res = JIO.succeedWith(() -> log.add("run")).provideLayer(layer).catchAllU(e -> JIO.succeed(false));
+                Runtime.runtime.unsafeRun(res).get();
+                assertThat(List.copyOf(log), equalTo(List.of("open db", "open service", "run", "close service", "close db")));
+            });
+        });
+
+        section("exit", () -> {
+            test("unsafeRunExit should complete with the result or the failure", () -> {
+                assertThat(Runtime.runtime.unsafeRunExit(JIO.<Integer>succeed(42).<String>toJIO()).get(), equalTo(new Exit.Success<>(42)));
+                assertThat(Runtime.runtime.unsafeRunExit(JIO.<String,Integer>fail("boom")).get(), equalTo(new Exit.Failure<>("boom")));
+            });
+
+            test("unsafeRunExitSync should return defects", () -> {
+                var die = JIO.<Integer>succeedWith(() -> { throw new IllegalArgumentException("bug"); }).<String>toJIO();
+                assertThat(Runtime.runtime.unsafeRunExitSync(die), instanceOf(Exit.Die.class));
+            });
+
+            test("failures that aren't a Throwable should complete a stage with a FailureException without stack trace", () -> {
+                var stage = Runtime.runtime.unsafeRun(JIO.<String,Integer>fail("boom").toCompletionStage()).get();
+                var ex = assertThrows(ExecutionException.class, () -> stage.toCompletableFuture().get());
+                assertThat(ex.getCause(), instanceOf(FailureException.class));
+                assertThat(((FailureException) ex.getCause()).error(String.class), equalTo("boom"));
+                assertThat(ex.getCause().getStackTrace().length, equalTo(0));
+                assertThat(ex.getCause().getMessage(), containsString("boom"));
+            });
+        });
+
+        section("validation", () -> {
+            Function<Integer, JIO<Object,String,Integer>> even = i -> (i % 2 == 0) ? JIO.<Integer>succeed(i).<String>toJIO() : JIO.fail("odd " + i);
+
+            test("validatePar should return all results if all effects succeed", () -> {
+                var res = JIO.<Object,String,Integer,Integer>validatePar(List.of(2, 4, 6), even);
+                assertThat(Runtime.runtime.unsafeRunExit(res).get(), equalTo(new Exit.Success<>(List.of(2, 4, 6))));
+            });
+
+            test("validatePar should fail with the errors of all effects that failed", () -> {
+                var res = JIO.<Object,String,Integer,Integer>validatePar(List.of(1, 2, 3, 4), even);
+                assertThat(Runtime.runtime.unsafeRunExit(res).get(), equalTo(new Exit.Failure<>(List.of("odd 1", "odd 3"))));
+            });
+
+            test("validateWithPar should fail with both errors", () -> {
+                var res = even.apply(1).validateWithPar(even.apply(3), Integer::sum);
+                assertThat(Runtime.runtime.unsafeRunExit(res).get(), equalTo(new Exit.Failure<>(List.of("odd 1", "odd 3"))));
+            });
+
+            test("validateWithPar should not interrupt one effect if the other fails", () -> {
+                var ran = new AtomicInteger();
+                var slow = JIO.sleep(ms(10)).flatMapU(u -> JIO.succeedWith(ran::incrementAndGet)).<String>toJIO();
+                var res = even.apply(1).validateWithPar(slow, Integer::sum);
+                assertThat(Runtime.runtime.unsafeRunExit(res).get(), equalTo(new Exit.Failure<>(List.of("odd 1"))));
+                assertThat(ran.get(), equalTo(1));
+            });
         });
     }
 }
@@ -0,0 +1,121 @@
+package net.ypmania.jio;
+
+import de.tobiasroeser.lambdatest.junit5.FreeSpec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public final class JStreamTest extends FreeSpec {
+    private static <A> A run(JIO<Object, ?, A> jio) throws Exception {
+        return Runtime.runtime.unsafeRun(jio.<A>catchAllU(e -> { throw new AssertionError("Stream failed with " + e); })).get();
+    }
+
+    {
+        section("sources", () -> {
+            test("fromIterable should emit all elements", () -> {
+                var res = JStream.fromIterable(List.of(1, 2, 3)).runCollect();
+                assertThat(run(res), equalTo(List.of(1, 2, 3)));
+            });
+
+            test("fromIterator should only pull what is consumed", () -> {
+                var pulled = new AtomicInteger();
+                var iterator = Stream.iterate(1, i -> i + 1).peek(i -> pulled.incrementAndGet()).iterator();
+                var res = JStream.<String,Integer>fromIterator(iterator, 10).take(5).runCollect();
+                assertThat(run(res), equalTo(List.of(1, 2, 3, 4, 5)));
+                assertThat(pulled.get(), lessThanOrEqualTo(10));
+            });
+
+            test("fromQueue should emit elements offered to the queue", () -> {
+                var res = Queue.<Integer>unbounded().flatMap(queue ->
+                    queue.offerAll(List.of(1, 2, 3)).flatMap(rejected ->
+                        JStream.<String,Integer>fromQueue(queue).take(3).runCollect()
+                    )
+                );
+                assertThat(run(res), equalTo(List.of(1, 2, 3)));
+            });
+        });
+
+        section("environment", () -> {
+            test("fromJIO and mapJIO should use the provided environment", () -> {
+                var res = JStream.<String,String,String>fromJIOU(JIO.<String>environment())
+                    .mapJIOU(s -> JIO.<String>environment().map(env -> s + env.length()))
+                    .provide("hello")
+                    .runCollect();
+                assertThat(run(res), equalTo(List.of("hello5")));
+            });
+
+            test("provideFrom should derive the environment from another one", () -> {
+                var res = JStream.<Integer,String,Integer>fromJIOU(JIO.<Integer>environment())
+                    .provideFrom((String s) -> s.length())
+                    .provide("abc")
+                    .runCollect();
+                assertThat(run(res), equalTo(List.of(3)));
+            });
+        });
+
+        section("transformations", () -> {
+            test("map and mapJIO should transform every element", () -> {
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3))
+                    .map(i -> i * 2)
+                    .mapJIOU(i -> JIO.succeed("" + i))
+                    .runCollect();
+                assertThat(run(res), equalTo(List.of("2", "4", "6")));
+            });
+
+            test("mapJIO should stop the stream at the first failure", () -> {
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3))
+                    .<Integer>mapJIO(i -> (i == 2) ? JIO.<String,Integer>fail("failed at " + i) : JIO.<Integer>succeed(i).<String>toJIO())
+                    .runCollect()
+                    .catchAllU(e -> JIO.succeed(List.of(e)));
+                assertThat(Runtime.runtime.unsafeRun(res).get(), equalTo(List.of("failed at 2")));
+            });
+
+            test("mapJIOPar should keep the order and limit the work in flight", () -> {
+                var running = new AtomicInteger();
+                var maxRunning = new AtomicInteger();
+                var res = JStream.<String,Integer>fromIterable(IntStream.range(0, 50).boxed().toList())
+                    .mapJIOParU(4, i -> JIO.succeedWith(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                        .flatMapU(n -> JIO.sleep(Duration.ofMillis(1)))
+                        .flatMapU(u -> JIO.succeedWith(() -> running.decrementAndGet()))
+                        .as(i))
+                    .runCollect();
+                assertThat(run(res), equalTo(IntStream.range(0, 50).boxed().toList()));
+                assertThat(maxRunning.get(), lessThanOrEqualTo(4));
+            });
+
+            test("grouped should emit lists of the given size", () -> {
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3, 4, 5)).grouped(2).runCollect();
+                assertThat(run(res),
+                    equalTo(List.of(List.of(1, 2), List.of(3, 4), List.of(5))));
+            });
+
+            test("groupedWithin should emit lists of at most the given size", () -> {
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3, 4, 5)).groupedWithin(2, Duration.ofSeconds(10)).runCollect();
+                assertThat(run(res),
+                    equalTo(List.of(List.of(1, 2), List.of(3, 4), List.of(5))));
+            });
+        });
+
+        section("sinks", () -> {
+            test("runFold should combine all elements", () -> {
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3)).runFold(0, (sum, i) -> sum + i);
+                assertThat(run(res), equalTo(6));
+            });
+
+            test("runForeach should run an effect for every element", () -> {
+                var seen = new ConcurrentLinkedQueue<Integer>();
+                var res = JStream.<String,Integer>fromIterable(List.of(1, 2, 3)).runForeachU(i -> JIO.succeedWith(() -> seen.add(i)));
+                run(res);
+                assertThat(List.copyOf(seen), equalTo(List.of(1, 2, 3)));
+            });
+        });
+    }
+}
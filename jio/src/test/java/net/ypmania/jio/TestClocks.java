@@ -0,0 +1,22 @@
+package net.ypmania.jio;
+
+import java.time.Duration;
+
+import zio.Trace;
+
+/** Runs effects against ZIO's TestClock, so tests can move time forward exactly instead of sleeping on the wall clock. */
+final class TestClocks {
+    private TestClocks() {}
+
+    /** Runs [jio] with ZIO's test services, including a TestClock at time zero, for its fiber and the fibers it forks. */
+    static <A> UJIO<Object, A> withTestClock(UJIO<Object, A> jio) {
+        return JIO.scopedWithU(scope ->
+            JIO.wrapU(zio.test.package$.MODULE$.testEnvironment().build(() -> scope.zioScope, Trace.empty())).flatMapU(env -> jio)
+        );
+    }
+
+    /** Moves the TestClock forward by [duration], waking up every effect that sleeps until then, in order. */
+    static UJIO<Object, Object> adjust(Duration duration) {
+        return JIO.wrapU(zio.test.TestClock$.MODULE$.adjust(() -> duration, Trace.empty())).as(null);
+    }
+}
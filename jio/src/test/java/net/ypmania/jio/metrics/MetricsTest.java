@@ -0,0 +1,124 @@
+package net.ypmania.jio.metrics;
+
+import de.tobiasroeser.lambdatest.junit5.FreeSpec;
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.Map;
+
+public final class MetricsTest extends FreeSpec {
+    private static <A> A run(UJIO<Object, A> jio) throws Exception {
+        return Runtime.runtime.unsafeRun(jio).get();
+    }
+
+    {
+        section("counter", () -> {
+            test("should count increments", () -> {
+                var counter = Counter.named("test_counter_increments");
+                var res = counter.increment().flatMapU(u -> counter.incrementBy(2)).flatMapU(u -> counter.count());
+                assertThat(run(res), equalTo(3L));
+            });
+
+            test("should share its count with counters of the same name", () -> {
+                var res = Counter.named("test_counter_shared").increment().flatMapU(u -> Counter.named("test_counter_shared").count());
+                assertThat(run(res), equalTo(1L));
+            });
+
+            test("should count failures", () -> {
+                var counter = Counter.named("test_counter_failures");
+                var res = JIO.<String,Integer>fail("boom").countFailures(counter).catchAllU(e -> JIO.succeed(0))
+                    .flatMapU(u -> JIO.<Integer>succeed(1).<String>toJIO().countFailures(counter).catchAllU(e -> JIO.succeed(0)))
+                    .flatMapU(u -> counter.count());
+                assertThat(run(res), equalTo(1L));
+            });
+        });
+
+        section("tags", () -> {
+            test("should keep separate counts per tag", () -> {
+                var counter = Counter.named("test_tags_counter");
+                var res = counter.tagged("endpoint", "a").increment()
+                    .flatMapU(u -> counter.tagged("endpoint", "b").incrementBy(2))
+                    .flatMapU(u -> counter.tagged("endpoint", "a").count());
+                assertThat(run(res), equalTo(1L));
+            });
+
+            test("should tag metrics updated by a tagged effect", () -> {
+                var counter = Counter.named("test_tags_effect");
+                var res = counter.increment().tagged("endpoint", "c")
+                    .flatMapU(u -> counter.tagged("endpoint", "c").count());
+                assertThat(run(res), equalTo(1L));
+            });
+
+            test("should reuse the tagged metric for the same tags", () -> {
+                var counter = Counter.named("test_tags_reuse");
+                assertThat(counter.tagged("endpoint", "a"), sameInstance(counter.tagged("endpoint", "a")));
+                assertThat(counter.tagged(Map.of("endpoint", "a")), sameInstance(counter.tagged("endpoint", "a")));
+            });
+
+            test("should list tagged metrics in snapshots", () -> {
+                var counter = Counter.named("test_tags_snapshot");
+                var res = counter.increment().tagged("endpoint", "d").flatMapU(u -> Metrics.snapshot());
+                var snapshots = run(res).stream().filter(s -> s.name().equals("test_tags_snapshot")).map(s -> s.tags()).toList();
+                assertThat(snapshots, hasItem(Map.of("endpoint", "d")));
+            });
+        });
+
+        section("gauge", () -> {
+            test("should return the latest value", () -> {
+                var gauge = Gauge.named("test_gauge");
+                var res = gauge.set(3).flatMapU(u -> gauge.set(5)).flatMapU(u -> gauge.value());
+                assertThat(run(res), equalTo(5.0));
+            });
+        });
+
+        section("histogram", () -> {
+            test("should count observations into buckets", () -> {
+                var histogram = Histogram.named("test_histogram_buckets", List.of(1.0, 10.0));
+                var res = histogram.observe(0.5).flatMapU(u -> histogram.observe(5)).flatMapU(u -> histogram.observe(7))
+                    .flatMapU(u -> histogram.snapshot());
+                var snapshot = run(res);
+                assertThat(snapshot.count(), equalTo(3L));
+                assertThat(snapshot.value(), equalTo(12.5));
+                assertThat(snapshot.max(), equalTo(7.0));
+                assertThat(snapshot.buckets().get(1.0), equalTo(1L));
+                assertThat(snapshot.buckets().get(10.0), equalTo(3L));
+            });
+
+            test("should observe how long a timed effect takes", () -> {
+                var histogram = Histogram.exponential("test_histogram_timed", 0.001, 2, 16);
+                var res = JIO.sleep(java.time.Duration.ofMillis(10)).timed(histogram).flatMapU(u -> histogram.snapshot());
+                var snapshot = run(res);
+                assertThat(snapshot.count(), equalTo(1L));
+                assertThat(snapshot.value(), greaterThanOrEqualTo(0.01));
+            });
+        });
+
+        section("runtime", () -> {
+            test("should report the default executor's metrics", () -> {
+                var metrics = Runtime.runtime.executorMetrics().orElseThrow();
+                assertThat(metrics.concurrency(), greaterThan(0));
+            });
+
+            test("should count fibers when RUNTIME_METRICS is enabled", () -> {
+                var runtime = Runtime.builder().enable(Runtime.Flag.RUNTIME_METRICS).build();
+                try {
+                    var res = Metrics.fibersStarted.count().flatMapU(before ->
+                        JIO.succeed(1).fork().flatMapU(f -> f.join()).flatMapU(i -> Metrics.fibersStarted.count()).map(after -> after - before)
+                    );
+                    assertThat(runtime.unsafeRun(res).get(), greaterThan(0L));
+                } finally {
+                    runtime.shutdown();
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package net.ypmania.jio.nio;
+
+import de.tobiasroeser.lambdatest.junit5.FreeSpec;
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class ChannelIOTest extends FreeSpec {
+    private static <A> A run(JIO<Object, IOException, A> jio) throws Exception {
+        return Runtime.runtime.unsafeRun(jio.<A>catchAllU(e -> { throw new AssertionError("I/O failed", e); })).get();
+    }
+
+    private static Path tempFile(byte[] content) throws IOException {
+        var path = Files.createTempFile("channel-io", ".bin");
+        path.toFile().deleteOnExit();
+        Files.write(path, content);
+        return path;
+    }
+
+    private static byte[] content(int size) {
+        var bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    private static long sum(long sum, ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            sum += buffer.get();
+        }
+        return sum;
+    }
+
+    private static long sum(byte[] bytes) {
+        return sum(0, ByteBuffer.wrap(bytes));
+    }
+
+    {
+        section("reading", () -> {
+            test("foldFile should visit every byte, one buffer at a time", () -> {
+                var bytes = content(100_000);
+                var res = ChannelIO.foldFile(tempFile(bytes), 4096, 0L, ChannelIOTest::sum);
+                assertThat(run(res), equalTo(sum(bytes)));
+            });
+
+            test("foldFile should use buffers of at most the given size", () -> {
+                var res = ChannelIO.foldFile(tempFile(content(10_000)), 4096, 0, (count, buffer) -> count + 1);
+                assertThat(run(res), equalTo(3));
+            });
+
+            test("fold should reuse a buffer that the caller passes in", () -> {
+                var bytes = content(10_000);
+                var path = tempFile(bytes);
+                var buffer = ByteBuffer.allocate(4096);
+                var once = JIO.scoped(ChannelIO.open(path, StandardOpenOption.READ).flatMap(channel ->
+                    ChannelIO.fold(channel, buffer, 0L, ChannelIOTest::sum)
+                ));
+                assertThat(run(once.zipWith(once, Long::sum)), equalTo(2 * sum(bytes)));
+            });
+
+            test("fold should reject channels in non-blocking mode, and buffers without room", () -> {
+                try (var channel = SocketChannel.open()) {
+                    channel.configureBlocking(false);
+                    assertThrows(IllegalArgumentException.class, () -> ChannelIO.fold(channel, 4096, 0L, ChannelIOTest::sum));
+                    assertThrows(IllegalArgumentException.class, () -> ChannelIO.write(channel, ByteBuffer.allocate(1)));
+                }
+                try (var channel = FileChannel.open(tempFile(content(1)), StandardOpenOption.READ)) {
+                    assertThrows(IllegalArgumentException.class, () -> ChannelIO.fold(channel, ByteBuffer.allocate(0), 0L, ChannelIOTest::sum));
+                    assertThrows(IllegalArgumentException.class, () -> ChannelIO.fold(channel, 0, 0L, ChannelIOTest::sum));
+                }
+            });
+
+            test("foldMapped should visit every byte, one region at a time", () -> {
+                var bytes = content(100_000);
+                var path = tempFile(bytes);
+                var res = JIO.scoped(ChannelIO.open(path, StandardOpenOption.READ).flatMap(channel ->
+                    ChannelIO.foldMapped(channel, 30_000, 0L, ChannelIOTest::sum)
+                ));
+                assertThat(run(res), equalTo(sum(bytes)));
+            });
+
+            test("foldAsync should visit every byte of a file", () -> {
+                var bytes = content(100_000);
+                var path = tempFile(bytes);
+                var res = JIO.scoped(ChannelIO.openAsync(path, StandardOpenOption.READ).flatMap(channel ->
+                    ChannelIO.foldAsync(channel, 4096, 0L, ChannelIOTest::sum)
+                ));
+                assertThat(run(res), equalTo(sum(bytes)));
+            });
+
+            test("foldAsync should read a socket until it is closed", () -> {
+                try (var server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                    var sender = Thread.ofVirtual().start(() -> {
+                        try (var socket = server.accept()) {
+                            socket.getOutputStream().write("hello, world".getBytes(StandardCharsets.UTF_8));
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                    var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+                    var res = JIO.scoped(ChannelIO.connect(address).flatMap(channel ->
+                        ChannelIO.foldAsync(channel, 4, "", (s, buffer) -> s + StandardCharsets.UTF_8.decode(buffer))
+                    ));
+                    assertThat(run(res), equalTo("hello, world"));
+                    sender.join();
+                }
+            });
+        });
+
+        section("writing", () -> {
+            test("writeAll should write every buffer that is filled", () -> {
+                var path = tempFile(new byte[0]);
+                var bytes = content(100_000);
+                var source = ByteBuffer.wrap(bytes);
+                var res = JIO.scoped(ChannelIO.open(path, StandardOpenOption.WRITE).flatMap(channel ->
+                    ChannelIO.writeAll(channel, 4096, buffer -> {
+                        var chunk = source.slice(source.position(), Math.min(buffer.remaining(), source.remaining()));
+                        buffer.put(chunk);
+                        source.position(source.position() + chunk.capacity());
+                        return source.hasRemaining();
+                    })
+                ));
+                run(res);
+                assertThat(Files.readAllBytes(path), equalTo(bytes));
+            });
+
+            test("writeAsync should write the whole buffer to a file", () -> {
+                var path = tempFile(new byte[0]);
+                var bytes = content(100_000);
+                var res = JIO.scoped(ChannelIO.openAsync(path, StandardOpenOption.WRITE).flatMap(channel ->
+                    ChannelIO.writeAsync(channel, ByteBuffer.wrap(bytes), 0)
+                ));
+                run(res);
+                assertThat(Files.readAllBytes(path), equalTo(bytes));
+            });
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package net.ypmania.jio.stm;
+
+import de.tobiasroeser.lambdatest.junit5.FreeSpec;
+import net.ypmania.jio.JIO;
+import net.ypmania.jio.Runtime;
+import net.ypmania.jio.UJIO;
+import net.ypmania.jio.tuple.Tuple;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+public final class STMTest extends FreeSpec {
+    private static <A> A run(UJIO<Object, A> jio) throws Exception {
+        return Runtime.runtime.unsafeRun(jio).get();
+    }
+
+    /** Moves [amount] from one account to the other, failing if [from] doesn't have enough. */
+    private static STM<String,Object> transfer(TRef<Integer> from, TRef<Integer> to, int amount) {
+        return from.get().<Object,String>flatMap(balance -> (balance < amount)
+            ? STM.fail("insufficient funds")
+            : from.update(b -> b - amount).flatMapU(u -> to.update(b -> b + amount)).toSTM()
+        );
+    }
+
+    {
+        section("TRef", () -> {
+            test("modify should return a result and update the value", () -> {
+                var res = TRef.makeCommit(41).flatMapU(ref ->
+                    STM.atomically(ref.modify(i -> Tuple.of("was " + i, i + 1)).zipWith(ref.get(), (s, i) -> s + ", now " + i))
+                );
+                assertThat(run(res), equalTo("was 41, now 42"));
+            });
+
+            test("concurrent transactions should keep several variables consistent", () -> {
+                var res = TRef.makeCommit(1000).flatMapU(a -> TRef.makeCommit(1000).flatMapU(b ->
+                    JIO.foreachParU(IntStream.range(0, 1000).boxed().toList(), i ->
+                        ((i % 2 == 0) ? transfer(a, b, 3) : transfer(b, a, 2)).commit().catchAllU(e -> JIO.empty())
+                    ).flatMapU(u -> STM.atomically(a.get().zipWith(b.get(), (x, y) -> x + y)))
+                ));
+                assertThat(run(res), equalTo(2000));
+            });
+
+            test("a failed transaction should roll back its changes", () -> {
+                var res = TRef.makeCommit(10).flatMapU(a -> TRef.makeCommit(0).flatMapU(b ->
+                    b.update(n -> n + 5).<String>toSTM().flatMap(u -> transfer(a, b, 20)).commit()
+                        .catchAllU(e -> STM.atomically(b.get()))
+                ));
+                assertThat(run(res), equalTo(0));
+            });
+        });
+
+        section("retry", () -> {
+            test("check should wait until another fiber changes a variable", () -> {
+                var res = TRef.makeCommit(false).flatMapU(ready ->
+                    JIO.sleep(Duration.ofMillis(10)).flatMapU(u -> STM.atomically(ready.set(true))).fork().flatMapU(fiber ->
+                        STM.atomically(ready.get().flatMapU(r -> STM.check(r)).map(u -> "ready"))
+                    )
+                );
+                assertThat(run(res), equalTo("ready"));
+            });
+
+            test("orElse should run the alternative instead of retrying", () -> {
+                var res = TQueue.<Integer>unboundedCommit().flatMapU(queue ->
+                    STM.atomically(queue.take().orElse(STM.succeed(-1)))
+                );
+                assertThat(run(res), equalTo(-1));
+            });
+        });
+
+        section("TMap", () -> {
+            test("should put, get and delete values", () -> {
+                var res = TMap.<String,Integer>makeCommit().flatMapU(map -> STM.atomically(
+                    map.put("a", 1).flatMapU(u -> map.put("b", 2)).flatMapU(u -> map.delete("a"))
+                        .flatMapU(u -> map.get("a").zipWith(map.toMap(), (a, all) -> Tuple.of(a, all)))
+                ));
+                assertThat(run(res), equalTo(Tuple.of(Optional.<Integer>empty(), Map.of("b", 2))));
+            });
+        });
+
+        section("TQueue", () -> {
+            test("take should wait for an element to be offered", () -> {
+                var res = TQueue.<Integer>boundedCommit(2).flatMapU(queue ->
+                    JIO.foreachU(List.of(1, 2, 3), i -> STM.atomically(queue.offer(i))).fork().flatMapU(fiber ->
+                        JIO.foreachU(List.of(1, 2, 3), i -> STM.atomically(queue.take()))
+                    )
+                );
+                assertThat(run(res), equalTo(List.of(1, 2, 3)));
+            });
+        });
+
+        section("TSemaphore", () -> {
+            test("should take permits from several semaphores at once", () -> {
+                var res = TSemaphore.makeCommit(2).flatMapU(s1 -> TSemaphore.makeCommit(1).flatMapU(s2 ->
+                    STM.atomically(s1.acquire().flatMapU(u -> s2.acquire()))
+                        .flatMapU(u -> STM.atomically(s1.available().zipWith(s2.available(), (a, b) -> a + b)))
+                ));
+                assertThat(run(res), equalTo(1L));
+            });
+        });
+    }
+}
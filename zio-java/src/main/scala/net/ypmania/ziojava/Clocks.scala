@@ -0,0 +1,12 @@
+package net.ypmania.ziojava
+
+import java.time.Instant
+import zio.Clock
+import zio.ZIO
+
+/** Reads ZIO's Clock, which (unlike System.currentTimeMillis) can be replaced in tests. */
+object Clocks {
+  def instant(): ZIO[Any, Nothing, Instant] = Clock.instant
+
+  def nanoTime(): ZIO[Any, Nothing, java.lang.Long] = Clock.nanoTime.map(java.lang.Long.valueOf)
+}
@@ -0,0 +1,70 @@
+package net.ypmania.ziojava
+
+import scala.jdk.CollectionConverters._
+import zio.Chunk
+import zio.Dequeue
+import zio.Enqueue
+import zio.FiberId
+import zio.Hub
+import zio.Promise
+import zio.Queue
+import zio.Scope
+import zio.Semaphore
+import zio.ZIO
+
+/** Creates and operates ZIO's concurrent primitives (Queue, Hub, Semaphore) with Java types, since their by-name
+  * primitive parameters and Chunk results are awkward to use from Java. */
+object Concurrents {
+  def boundedQueue[A](capacity: Int): ZIO[Any, Nothing, Queue[A]] = Queue.bounded[A](capacity)
+
+  def droppingQueue[A](capacity: Int): ZIO[Any, Nothing, Queue[A]] = Queue.dropping[A](capacity)
+
+  def slidingQueue[A](capacity: Int): ZIO[Any, Nothing, Queue[A]] = Queue.sliding[A](capacity)
+
+  def unboundedQueue[A](): ZIO[Any, Nothing, Queue[A]] = Queue.unbounded[A]
+
+  /** Offers all elements, returning the ones that the queue did not accept. */
+  def offerAll[A](queue: Enqueue[A], as: java.lang.Iterable[? <: A]): ZIO[Any, Nothing, java.util.List[A]] = {
+    queue.offerAll(Chunk.fromIterable[A](as.asScala)).map(_.asJava)
+  }
+
+  def boundedHub[A](capacity: Int): ZIO[Any, Nothing, Hub[A]] = Hub.bounded[A](capacity)
+
+  def droppingHub[A](capacity: Int): ZIO[Any, Nothing, Hub[A]] = Hub.dropping[A](capacity)
+
+  def slidingHub[A](capacity: Int): ZIO[Any, Nothing, Hub[A]] = Hub.sliding[A](capacity)
+
+  def unboundedHub[A](): ZIO[Any, Nothing, Hub[A]] = Hub.unbounded[A]
+
+  /** Publishes all elements, returning the ones that the hub did not accept. */
+  def publishAll[A](hub: Hub[A], as: java.lang.Iterable[? <: A]): ZIO[Any, Nothing, java.util.List[A]] = {
+    hub.publishAll(Chunk.fromIterable[A](as.asScala)).map(_.asJava)
+  }
+
+  /** Subscribes to the hub until the given scope closes. */
+  def subscribe[A](hub: Hub[A], scope: Scope): ZIO[Any, Nothing, Dequeue[A]] = scope.extend[Any](hub.subscribe)
+
+  def semaphore(permits: Long): ZIO[Any, Nothing, Semaphore] = Semaphore.make(permits)
+
+  /** Creates a promise outside of an effect, e.g. while holding a lock, so that it's only made when it's needed. */
+  def unsafePromise[E, A](): Promise[E, A] = zio.Unsafe.unsafe { implicit unsafe => Promise.unsafe.make[E, A](FiberId.None) }
+
+  /** Runs [zio] if [admit] returns true, and then runs [release] however [zio] ends. Returns [otherwise] if [admit]
+    * returns false. Admitting and releasing can't be interrupted, so every admission is released exactly once. */
+  def guarded[R, E, A](admit: java.util.function.BooleanSupplier, zio: ZIO[R, E, A], otherwise: ZIO[R, E, A], release: Runnable): ZIO[R, E, A] = {
+    ZIO.uninterruptibleMask { restore =>
+      ZIO.suspendSucceed {
+        if (admit.getAsBoolean()) restore(zio).ensuring(ZIO.succeed(release.run()))
+        else restore(otherwise)
+      }
+    }
+  }
+
+  def toBoolean[R](zio: ZIO[R, Nothing, Boolean]): ZIO[R, Nothing, java.lang.Boolean] = zio.map(java.lang.Boolean.valueOf)
+
+  def toInteger[R](zio: ZIO[R, Nothing, Int]): ZIO[R, Nothing, Integer] = zio.map(Integer.valueOf)
+
+  def toLong[R](zio: ZIO[R, Nothing, Long]): ZIO[R, Nothing, java.lang.Long] = zio.map(java.lang.Long.valueOf)
+
+  def toList[R, A](zio: ZIO[R, Nothing, Chunk[A]]): ZIO[R, Nothing, java.util.List[A]] = zio.map(_.asJava)
+}
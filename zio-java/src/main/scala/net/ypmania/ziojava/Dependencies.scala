@@ -1,36 +1,86 @@
 package net.ypmania.ziojava
 
+import zio.Trace
 import zio.ZIO
-import zio.ZLayer
 import zio.Schedule
 import zio.ZEnvironment
+import zio.ZLayer
 
 case class Dependencies(content: Object)
 
 object Dependencies {
+  // Providing an environment only swaps the fiber's environment for the duration of the effect, which is much cheaper
+  // than building a ZLayer. These are shared by all effects that need a placeholder environment.
+  private val unwrapped = ZEnvironment(new Dependencies(null))
+  private val discarded = ZEnvironment(Dependencies(new Object))
+
   def provide[R <: Object, E, A <: Object](zio: ZIO[Dependencies,E,A], dependencies: R): ZIO[Dependencies,E,A] = {
-    zio.provideLayer(ZLayer.succeed(Dependencies(dependencies)))
+    zio.provideEnvironment(ZEnvironment(Dependencies(dependencies)))
+  }
+
+  def provideFrom[R1, R <: Object, E, A](zio: ZIO[Dependencies,E,A], fn: R1 => R): ZIO[Dependencies,E,A] = {
+    zio.provideSomeEnvironment[Dependencies](env => ZEnvironment(Dependencies(fn(env.get[Dependencies].content.asInstanceOf[R1]))))
   }
 
   def discard[E, A <: Object](zio: ZIO[Dependencies,E,A]): ZIO[Any, E, A] = {
-    zio.provideLayer(ZLayer.succeed(Dependencies(new Object)))
+    zio.provideEnvironment(discarded)
   }
 
-  def make[R <: Object](): ZIO[Dependencies,Nothing,R] = ZIO.service[Dependencies].map(_.content.asInstanceOf[R])
+  def make[R <: Object](): ZIO[Dependencies,Nothing,R] = ZIO.environmentWith[Dependencies](_.get.content.asInstanceOf[R])
 
   def wrap[A,E](zio: ZIO[Object, E, A]): ZIO[Dependencies, E, A] = zio
 
-  def unsafeUnwrap[A,E](zio: ZIO[Dependencies, E, A]): ZIO[Object, E, A] = zio.provideLayer(ZLayer.succeed(new Dependencies(null)))
+  def unsafeUnwrap[A,E](zio: ZIO[Dependencies, E, A]): ZIO[Object, E, A] = zio.provideEnvironment(unwrapped)
 
   def wrap[I,O](zio: Schedule[Object, I, O]): Schedule[Dependencies, I, O] = zio
 
-  def unsafeUnwrap[I,O](zio: Schedule[Dependencies, I, O]): Schedule[Object, I, O] = zio.provideEnvironment(ZEnvironment(new Dependencies(null)))
+  def unsafeUnwrap[I,O](zio: Schedule[Dependencies, I, O]): Schedule[Object, I, O] = zio.provideEnvironment(unwrapped)
 
   def provide[R <: Object, I, O](zio: Schedule[Dependencies,I,O], dependencies: R): Schedule[Dependencies,I,O] = {
     zio.provideEnvironment(ZEnvironment(Dependencies(dependencies)))
   }
 
   def discard[I,O](zio: Schedule[Dependencies,I,O]): Schedule[Any,I,O] = {
-    zio.provideEnvironment(ZEnvironment(Dependencies(new Object)))
+    zio.provideEnvironment(discarded)
+  }
+
+  // The layer helpers take the trace of the Java code that calls them, so that layers show up in traces where they are
+  // defined rather than here.
+
+  /** Returns a layer that builds its output with [zio], which gets the layer's input as its environment. */
+  def layer[E, A <: Object](zio: ZIO[Dependencies, E, A])(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = {
+    ZLayer.fromZIOEnvironment(zio.map(a => ZEnvironment(Dependencies(a))))
+  }
+
+  /** Returns a layer that builds its output with [make], whose effect gets a Scope (made by [wrapScope]) as its
+    * environment. The scope closes when the layer is released. */
+  def scopedLayer[R, E, A <: Object](make: R => ZIO[Dependencies, E, A], wrapScope: zio.Scope => Object)(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = {
+    ZLayer.scopedEnvironment[Dependencies] {
+      for {
+        input <- ZIO.service[Dependencies]
+        scope <- ZIO.scope
+        a <- make(input.content.asInstanceOf[R]).provideEnvironment(ZEnvironment(Dependencies(wrapScope(scope))))
+      } yield ZEnvironment(Dependencies(a))
+    }
+  }
+
+  /** Returns a layer that passes its input through as its output. */
+  def identityLayer[E]()(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = ZLayer.environment[Dependencies]
+
+  /** Builds both layers in parallel from the same input, combining their outputs. */
+  def and[E, A, B, C <: Object](a: ZLayer[Dependencies, E, Dependencies], b: ZLayer[Dependencies, E, Dependencies], combine: java.util.function.BiFunction[A, B, C])(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = {
+    a.zipWithPar(b)((ea, eb) => ZEnvironment(Dependencies(combine(ea.get[Dependencies].content.asInstanceOf[A], eb.get[Dependencies].content.asInstanceOf[B]))))
+  }
+
+  /** Feeds the output of [a] into [b]. */
+  def to[E](a: ZLayer[Dependencies, E, Dependencies], b: ZLayer[Dependencies, E, Dependencies])(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = a >>> b
+
+  def mapLayer[E, A, B <: Object](layer: ZLayer[Dependencies, E, Dependencies], fn: A => B)(implicit trace: Trace): ZLayer[Dependencies, E, Dependencies] = {
+    layer.map(env => ZEnvironment(Dependencies(fn(env.get[Dependencies].content.asInstanceOf[A]))))
+  }
+
+  /** Builds [layer], and runs [zio] with its output as environment. The layer is released when [zio] completes. */
+  def provideLayer[E, A](zio: ZIO[Dependencies, E, A], layer: ZLayer[Dependencies, E, Dependencies])(implicit trace: Trace): ZIO[Dependencies, E, A] = {
+    zio.provideLayer(layer)
   }
 }
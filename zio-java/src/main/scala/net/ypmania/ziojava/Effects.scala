@@ -0,0 +1,32 @@
+package net.ypmania.ziojava
+
+import java.util.concurrent.CompletableFuture
+import zio.ZIO
+
+/** Creates effects from Java callback-based APIs, and the other way around. */
+object Effects {
+  /** Returns an effect that calls [register] when it runs, and then suspends (without blocking a thread) until the
+    * callback given to [register] is invoked. The callback is whatever [callback] makes out of the functions that
+    * succeed, fail and die the effect, so the caller can hand out its own callback type. */
+  def async[E, A, C](callback: (A => Unit, E => Unit, Throwable => Unit) => C, register: java.util.function.Consumer[C]): ZIO[Any, E, A] = {
+    ZIO.async[Any, E, A](cb => register.accept(complete(cb, callback)))
+  }
+
+  /** Like async, but [register] returns a Runnable (or null) that is run if the effect is interrupted while it waits. */
+  def asyncInterrupt[E, A, C](callback: (A => Unit, E => Unit, Throwable => Unit) => C, register: java.util.function.Function[C, Runnable]): ZIO[Any, E, A] = {
+    ZIO.asyncInterrupt[Any, E, A] { cb =>
+      val canceller = register.apply(complete(cb, callback))
+      Left(ZIO.succeed(if (canceller != null) canceller.run()))
+    }
+  }
+
+  /** Starts the effect on a new fiber, returning a future that completes when it does. Cancelling the future interrupts
+    * the fiber. Failures with an error that isn't a Throwable complete the future with what [failure] makes of it. */
+  def toCompletableFuture[R, E, A](zio: ZIO[R, E, A], failure: java.util.function.Function[Any, Throwable]): ZIO[R, Nothing, CompletableFuture[A]] = for {
+    fiber <- zio.forkDaemon
+    runtime <- ZIO.runtime[Any]
+  } yield JavaRuntime.observe(runtime, fiber, failure)
+
+  private def complete[E, A, C](cb: ZIO[Any, E, A] => Unit, callback: (A => Unit, E => Unit, Throwable => Unit) => C): C =
+    callback(a => cb(ZIO.succeed(a)), e => cb(ZIO.fail(e)), t => cb(ZIO.die(t)))
+}
@@ -0,0 +1,25 @@
+package net.ypmania.ziojava
+
+import java.util.function.Supplier
+import zio.Exit
+
+object Exits {
+  /** Returns the result of the function matching how the effect ended: with a success, a failure, a defect (an
+    * unexpected exception) or by being interrupted. */
+  def fold[E, A, T](
+    exit: Exit[E, A],
+    onSuccess: java.util.function.Function[A, T],
+    onFailure: java.util.function.Function[E, T],
+    onDie: java.util.function.Function[Throwable, T],
+    onInterrupt: Supplier[T]
+  ): T = exit match {
+    case Exit.Success(a) => onSuccess.apply(a)
+    case Exit.Failure(cause) => cause.failureOrCause match {
+      case Left(e) => onFailure.apply(e)
+      case Right(other) => other.dieOption match {
+        case Some(t) => onDie.apply(t)
+        case None => onInterrupt.get()
+      }
+    }
+  }
+}
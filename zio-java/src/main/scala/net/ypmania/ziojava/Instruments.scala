@@ -0,0 +1,74 @@
+package net.ypmania.ziojava
+
+import scala.jdk.CollectionConverters._
+import zio.Chunk
+import zio.Clock
+import zio.ExecutionMetrics
+import zio.Fiber
+import zio.ZIO
+import zio.metrics.Metric
+import zio.metrics.MetricKeyType
+import zio.metrics.MetricState
+
+/** Creates, updates and reads ZIO metrics with Java types, since their by-name parameters and MetricState results are
+  * awkward to use from Java. */
+object Instruments {
+  def counter(name: String): Metric[?, Long, ?] = Metric.counter(name)
+
+  def gauge(name: String): Metric[?, Double, ?] = Metric.gauge(name)
+
+  def histogram(name: String, boundaries: java.lang.Iterable[java.lang.Double]): Metric[?, Double, ?] = {
+    Metric.histogram(name, MetricKeyType.Histogram.Boundaries.fromChunk(Chunk.fromIterable(boundaries.asScala.map(_.doubleValue))))
+  }
+
+  def incrementBy(counter: Metric[?, Long, ?], amount: Long): ZIO[Any, Nothing, Unit] = counter.update(amount)
+
+  def update(metric: Metric[?, Double, ?], value: Double): ZIO[Any, Nothing, Unit] = metric.update(value)
+
+  /** Records how long [zio] takes, in seconds, whether it succeeds, fails or is interrupted. */
+  def timed[R, E, A](zio: ZIO[R, E, A], histogram: Metric[?, Double, ?]): ZIO[R, E, A] = Clock.nanoTime.flatMap { start =>
+    zio.onExit(_ => Clock.nanoTime.flatMap(end => histogram.update((end - start) / 1e9)))
+  }
+
+  /** Tags all metrics that [zio] updates with the given key and value. */
+  def tagged[R, E, A](zio: ZIO[R, E, A], key: String, value: String): ZIO[R, E, A] = ZIO.tagged(key, value)(zio)
+
+  /** Returns the tags of the calling fiber, as set by tagged(). */
+  def tags(): ZIO[Any, Nothing, java.util.Map[String, String]] = ZIO.tags.map(_.iterator.map(l => l.key -> l.value).toMap.asJava)
+
+  def state(metric: Metric[?, ?, ?]): ZIO[Any, Nothing, InstrumentState] = metric.value.map { (s: Any) =>
+    s match {
+      case c: MetricState.Counter => InstrumentState(c.count.toLong, c.count, 0, 0, emptyBuckets)
+      case g: MetricState.Gauge => InstrumentState(0, g.value, 0, 0, emptyBuckets)
+      case h: MetricState.Histogram =>
+        val buckets = new java.util.TreeMap[java.lang.Double, java.lang.Long]()
+        h.buckets.foreach { case (boundary, count) => buckets.put(boundary, count) }
+        InstrumentState(h.count, h.sum, h.min, h.max, java.util.Collections.unmodifiableSortedMap(buckets))
+      case _ => InstrumentState(0, 0, 0, 0, emptyBuckets)
+    }
+  }
+
+  private val emptyBuckets = java.util.Collections.emptySortedMap[java.lang.Double, java.lang.Long]()
+
+  /** Returns the metrics of the executor that runs the calling fiber, or null if it doesn't collect any. */
+  def executorMetrics(): ZIO[Any, Nothing, ExecutionMetrics] = ZIO.executorWith { executor =>
+    ZIO.succeed(zio.Unsafe.unsafe { implicit unsafe => executor.metrics.orNull })
+  }
+
+  /** Returns the number of running and suspended root fibers, in that order. Root fibers are only tracked by runtimes
+    * with the FiberRoots flag. */
+  def rootFiberCounts(): ZIO[Any, Nothing, Array[Int]] = Fiber.roots.flatMap(ZIO.foreach(_)(_.status)).map { statuses =>
+    Array(
+      statuses.count(_.isInstanceOf[Fiber.Status.Running]),
+      statuses.count(_.isInstanceOf[Fiber.Status.Suspended])
+    )
+  }
+}
+
+/** The state of a metric, flattened so that Java doesn't have to match on MetricState.
+  * @param count Number of observations of a histogram, or the value of a counter.
+  * @param value The value of a counter or gauge, or the sum of a histogram's observations.
+  * @param min The smallest observation of a histogram. Zero for other metrics.
+  * @param max The largest observation of a histogram. Zero for other metrics.
+  * @param buckets Number of observations of a histogram at or below each boundary. Empty for other metrics. */
+case class InstrumentState(count: Long, value: Double, min: Double, max: Double, buckets: java.util.SortedMap[java.lang.Double, java.lang.Long])
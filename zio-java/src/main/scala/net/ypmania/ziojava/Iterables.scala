@@ -0,0 +1,52 @@
+package net.ypmania.ziojava
+
+import scala.jdk.CollectionConverters._
+import zio.Chunk
+import zio.ZIO
+
+/** Runs effects over Java collections, returning Java collections. */
+object Iterables {
+  def foreach[R, E, A, B](as: java.lang.Iterable[? <: A], fn: A => ZIO[R, E, B]): ZIO[R, E, java.util.List[B]] = {
+    ZIO.foreach(Chunk.fromIterable[A](as.asScala))(fn).map(_.asJava)
+  }
+
+  /** Iterates [as] lazily, rather than copying it into a Chunk first. */
+  def foreachDiscard[R, E, A](as: java.lang.Iterable[? <: A], fn: A => ZIO[R, E, Any]): ZIO[R, E, Unit] = {
+    ZIO.foreachDiscard[R, E, A](as.asScala)(fn)
+  }
+
+  def loop[R, E, A, S](initial: S, cont: S => Boolean, inc: S => S, body: S => ZIO[R, E, A]): ZIO[R, E, java.util.List[A]] = {
+    ZIO.loop(initial)(cont, inc)(body).map(_.asJava)
+  }
+
+  def foldLeft[R, E, A, S](as: java.lang.Iterable[? <: A], zero: S, fn: (S, A) => ZIO[R, E, S]): ZIO[R, E, S] = {
+    ZIO.foldLeft[R, E, S, A](as.asScala)(zero)(fn)
+  }
+
+  def foreachPar[R, E, A, B](as: java.lang.Iterable[? <: A], fn: A => ZIO[R, E, B]): ZIO[R, E, java.util.List[B]] = {
+    ZIO.foreachPar(Chunk.fromIterable[A](as.asScala))(fn).map(_.asJava)
+  }
+
+  /** Like foreachPar, but runs all effects even if some fail, failing with the errors of all that failed, in the order
+    * of [as]. */
+  def validatePar[R, E, A, B](as: java.lang.Iterable[? <: A], fn: A => ZIO[R, E, B]): ZIO[R, java.util.List[E], java.util.List[B]] = {
+    ZIO.validatePar(Chunk.fromIterable[A](as.asScala))(fn).mapBoth(_.asJava, _.asJava)
+  }
+
+  /** Runs both effects in parallel, without interrupting one if the other fails. Fails with the errors of both if both
+    * fail. */
+  def validateWithPar[R, E, A, B, C](a: ZIO[R, E, A], b: ZIO[R, E, B], fn: (A, B) => C): ZIO[R, java.util.List[E], C] = {
+    a.either.zipWithPar(b.either) {
+      case (Right(x), Right(y)) => Right(fn(x, y))
+      case (x, y) => Left((x.swap.toSeq ++ y.swap.toSeq).asJava)
+    }.flatMap(e => ZIO.fromEither[java.util.List[E], C](e))
+  }
+
+  def mergeAllPar[R, E, X, A, B](as: java.lang.Iterable[? <: X], fn: X => ZIO[R, E, A], zero: B, f: (B, A) => B): ZIO[R, E, B] = {
+    ZIO.mergeAllPar(Chunk.fromIterable[X](as.asScala).map(fn))(zero)(f)
+  }
+
+  def withParallelism[R, E, A](zio: ZIO[R, E, A], n: Int): ZIO[R, E, A] = {
+    ZIO.withParallelism(n)(zio)
+  }
+}
@@ -1,23 +1,120 @@
 package net.ypmania.ziojava
 
 import java.util.concurrent.CompletableFuture
-import scala.jdk.javaapi.FutureConverters._
+import java.util.concurrent.Executor
+import scala.jdk.CollectionConverters._
+import zio.Cause
+import zio.Exit
+import zio.Fiber
+import zio.FiberId
+import zio.RuntimeFlag
 import zio.ZIO
+import zio.ZLayer
 
-case class JavaRuntime[R](runtime: zio.Runtime[R]) {
+/** Runs effects from Java. Failures with an error that isn't a Throwable are turned into one by [failure]. */
+case class JavaRuntime[R](runtime: zio.Runtime[R], failure: java.util.function.Function[Any, Throwable]) {
   // [Any] will compile down to Object anyway.
   def unsafeRun[E,A](z: ZIO[Any,E,A]): CompletableFuture[A] = {
     zio.Unsafe.unsafe { implicit unsafe =>
-      asJava(zio.Runtime.default.unsafe.runToFuture(
-        z.mapError {
-          case x:Throwable => x
-          case other => new IllegalStateException("JIO failed unexpectedly with " + other)
-        }
-      ).future).toCompletableFuture()
+      runtime.unsafe.runOrFork(z) match {
+        case Right(exit) =>
+          val future = new CompletableFuture[A]()
+          JavaRuntime.complete(future, exit, failure)
+          future
+        case Left(fiber) =>
+          JavaRuntime.observe(runtime, fiber, failure)
+      }
     }
   }
+
+  /** Runs the effect on the calling thread, blocking it if the effect suspends. */
+  def unsafeRunSync[E,A](z: ZIO[Any,E,A]): A = {
+    zio.Unsafe.unsafe { implicit unsafe =>
+      runtime.unsafe.run(z) match {
+        case Exit.Success(a) => a
+        case Exit.Failure(cause) => throw JavaRuntime.toThrowable(cause, failure)
+      }
+    }
+  }
+
+  /** Releases the resources of a runtime created through make(). Does nothing for other runtimes. */
+  def shutdown(): Unit = runtime match {
+    case scoped: zio.Runtime.Scoped[R] => zio.Unsafe.unsafe { implicit unsafe => scoped.unsafe.shutdown() }
+    case _ => ()
+  }
 }
 
 object JavaRuntime {
-  val defaultRuntime = JavaRuntime(zio.Runtime.default)
+  def defaultRuntime(failure: java.util.function.Function[Any, Throwable]): JavaRuntime[Any] = JavaRuntime(zio.Runtime.default, failure)
+
+  /** Creates a runtime on top of the default one, replacing its executors (if non-null) and runtime flags. Flags are
+    * given by their ZIO name, e.g. "FiberRoots". */
+  def make(executor: Executor, blockingExecutor: Executor, enableFlags: java.lang.Iterable[String], disableFlags: java.lang.Iterable[String], failure: java.util.function.Function[Any, Throwable]): JavaRuntime[Any] = {
+    val layers = Seq(
+      Option(executor).map(e => zio.Runtime.setExecutor(zio.Executor.fromJavaExecutor(e))),
+      Option(blockingExecutor).map(e => zio.Runtime.setBlockingExecutor(zio.Executor.fromJavaExecutor(e))),
+      Some(zio.Runtime.enableFlags(enableFlags.asScala.toSeq.map(flag)*)),
+      Some(zio.Runtime.disableFlags(disableFlags.asScala.toSeq.map(flag)*))
+    ).flatten
+    val layer = layers.foldLeft[ZLayer[Any, Nothing, Any]](ZLayer.empty)(_ ++ _)
+    zio.Unsafe.unsafe { implicit unsafe =>
+      JavaRuntime(zio.Runtime.unsafe.fromLayer(layer), failure)
+    }
+  }
+
+  private def flag(name: String): RuntimeFlag = name match {
+    case "FiberRoots" => RuntimeFlag.FiberRoots
+    case "OpLog" => RuntimeFlag.OpLog
+    case "OpSupervision" => RuntimeFlag.OpSupervision
+    case "RuntimeMetrics" => RuntimeFlag.RuntimeMetrics
+    case "CooperativeYielding" => RuntimeFlag.CooperativeYielding
+    case "CurrentFiber" => RuntimeFlag.CurrentFiber
+    case "WindDown" => RuntimeFlag.WindDown
+    case other => throw new IllegalArgumentException("Unknown runtime flag " + other)
+  }
+
+  /** Returns a future that completes when the fiber does. Cancelling the future interrupts the fiber. */
+  private[ziojava] def observe[E, A](runtime: zio.Runtime[?], fiber: Fiber.Runtime[E, A], failure: java.util.function.Function[Any, Throwable]): CompletableFuture[A] = {
+    val future = new FiberFuture[A]()
+    zio.Unsafe.unsafe { implicit unsafe =>
+      fiber.unsafe.addObserver(exit => complete(future, exit, failure))
+    }
+    future.onCancel(() => zio.Unsafe.unsafe { implicit unsafe =>
+      runtime.unsafe.run(fiber.interruptAsFork(FiberId.None))
+      ()
+    })
+    future
+  }
+
+  /** A future that runs a callback when it is cancelled, so the fiber computing it can be interrupted. */
+  private class FiberFuture[A] extends CompletableFuture[A] {
+    @volatile private var canceller: Runnable = null
+
+    def onCancel(c: Runnable): Unit = {
+      canceller = c
+      if (isCancelled()) c.run()
+    }
+
+    override def cancel(mayInterruptIfRunning: Boolean): Boolean = {
+      val cancelled = super.cancel(mayInterruptIfRunning)
+      val c = canceller
+      if (cancelled && c != null) c.run()
+      cancelled
+    }
+  }
+
+  private def complete[E,A](future: CompletableFuture[A], exit: Exit[E,A], failure: java.util.function.Function[Any, Throwable]): Unit = exit match {
+    case Exit.Success(a) => future.complete(a)
+    case Exit.Failure(cause) => future.completeExceptionally(toThrowable(cause, failure))
+  }
+
+  /** Failures that aren't a Throwable are passed to [failure] directly, skipping the trace that squashTraceWith would
+    * attach to the resulting exception. */
+  private def toThrowable[E](cause: Cause[E], failure: java.util.function.Function[Any, Throwable]): Throwable = cause.failureOption match {
+    case Some(error) if !error.isInstanceOf[Throwable] => failure.apply(error)
+    case _ => cause.squashTraceWith {
+      case x:Throwable => x
+      case other => failure.apply(other)
+    }
+  }
 }
@@ -0,0 +1,30 @@
+package net.ypmania.ziojava
+
+import zio.Duration
+import zio.Scope
+import zio.ZEnvironment
+import zio.ZIO
+import zio.ZPool
+
+/** Creates ZPools of items whose creator accesses its Scope through Dependencies, and checks out items into a given
+  * Scope. [wrapScope] turns the Scope that ZPool gives each item into the environment that the creator expects. */
+object Pools {
+  def fixed[E, A](get: ZIO[Dependencies, E, A], wrapScope: Scope => Object, size: Int, scope: Scope): ZIO[Any, Nothing, ZPool[E, A]] = {
+    scope.extend[Any](ZPool.make(creator(get, wrapScope), size))
+  }
+
+  def dynamic[E, A](get: ZIO[Dependencies, E, A], wrapScope: Scope => Object, min: Int, max: Int, timeToLive: Duration, scope: Scope): ZIO[Any, Nothing, ZPool[E, A]] = {
+    scope.extend[Any](ZPool.make(creator(get, wrapScope), min to max, timeToLive))
+  }
+
+  def get[E, A](pool: ZPool[E, A], scope: Scope): ZIO[Any, E, A] = scope.extend[Any](pool.get)
+
+  /** Runs [acquired] and adds [released] as a finalizer to [scope] in one uninterruptible step, so that an interruption
+    * can't leave a counter bumped by [acquired] without its matching [released]. */
+  def track[B, C](scope: Scope, acquired: ZIO[Any, Nothing, B], released: ZIO[Any, Nothing, C]): ZIO[Any, Nothing, Unit] =
+    (acquired *> scope.addFinalizer(released)).uninterruptible
+
+  private def creator[E, A](get: ZIO[Dependencies, E, A], wrapScope: Scope => Object): ZIO[Scope, E, A] = {
+    ZIO.serviceWithZIO[Scope](scope => get.provideEnvironment(ZEnvironment(Dependencies(wrapScope(scope)))))
+  }
+}
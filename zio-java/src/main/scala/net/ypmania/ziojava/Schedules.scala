@@ -0,0 +1,10 @@
+package net.ypmania.ziojava
+
+import zio.Schedule
+
+/** Combines schedules where ZIO needs implicits. */
+object Schedules {
+  def and[R, I, O1, O2](a: Schedule[R, I, O1], b: Schedule[R, I, O2]): Schedule[R, I, (O1, O2)] = a && b
+
+  def or[R, I, O1, O2](a: Schedule[R, I, O1], b: Schedule[R, I, O2]): Schedule[R, I, (O1, O2)] = a || b
+}
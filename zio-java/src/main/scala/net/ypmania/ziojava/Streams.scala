@@ -0,0 +1,50 @@
+package net.ypmania.ziojava
+
+import scala.jdk.CollectionConverters._
+import zio.Dequeue
+import zio.Duration
+import zio.ZEnvironment
+import zio.ZIO
+import zio.stream.ZStream
+
+/** Creates and transforms ZStreams with Java types. Like Dependencies does for ZIO, streams that need an environment
+  * access it through Dependencies. */
+object Streams {
+  val defaultChunkSize: Int = ZStream.DefaultChunkSize
+
+  def wrap[E, A](stream: ZStream[Object, E, A]): ZStream[Dependencies, E, A] = stream
+
+  def fromIterable[E, A](as: java.lang.Iterable[? <: A]): ZStream[Any, E, A] = ZStream.fromIterable[A](as.asScala)
+
+  def fromIterator[E, A](it: java.util.Iterator[? <: A], chunkSize: Int): ZStream[Any, E, A] = {
+    ZStream.fromIteratorSucceed[A](it.asScala, chunkSize)
+  }
+
+  def fromZIO[R, E, A](zio: ZIO[R, E, A]): ZStream[R, E, A] = ZStream.fromZIO(zio)
+
+  def provide[E, A](stream: ZStream[Dependencies, E, A], dependencies: Object): ZStream[Dependencies, E, A] = {
+    stream.provideEnvironment(ZEnvironment(Dependencies(dependencies)))
+  }
+
+  def provideFrom[R1, R <: Object, E, A](stream: ZStream[Dependencies, E, A], fn: R1 => R): ZStream[Dependencies, E, A] = {
+    stream.provideSomeEnvironment[Dependencies](env => ZEnvironment(Dependencies(fn(env.get[Dependencies].content.asInstanceOf[R1]))))
+  }
+
+  def fromQueue[E, A](queue: Dequeue[A], chunkSize: Int): ZStream[Any, E, A] = ZStream.fromQueue(queue, chunkSize)
+
+  def mapZIOPar[R, E, A, B](stream: ZStream[R, E, A], n: Int, fn: A => ZIO[R, E, B]): ZStream[R, E, B] = {
+    stream.mapZIOPar(n)(fn)
+  }
+
+  def grouped[R, E, A](stream: ZStream[R, E, A], n: Int): ZStream[R, E, java.util.List[A]] = {
+    stream.grouped(n).map(_.asJava)
+  }
+
+  def groupedWithin[R, E, A](stream: ZStream[R, E, A], n: Int, within: Duration): ZStream[R, E, java.util.List[A]] = {
+    stream.groupedWithin(n, within).map(_.asJava)
+  }
+
+  def take[R, E, A](stream: ZStream[R, E, A], n: Long): ZStream[R, E, A] = stream.take(n)
+
+  def runCollect[R, E, A](stream: ZStream[R, E, A]): ZIO[R, E, java.util.List[A]] = stream.runCollect.map(_.asJava)
+}
@@ -0,0 +1,16 @@
+package net.ypmania.ziojava
+
+import zio.Trace
+import zio.ZIO
+
+/** Runs several effects one after the other in a single chain of flatMaps, combining all their results at once, so no
+  * intermediate tuples are allocated on the way. */
+object Zips {
+  def zip3[R, E, A, B, C, T](a: ZIO[R, E, A], b: ZIO[R, E, B], c: ZIO[R, E, C], combine: (A, B, C) => T)(implicit trace: Trace): ZIO[R, E, T] = {
+    a.flatMap(x => b.flatMap(y => c.map(z => combine(x, y, z))))
+  }
+
+  def zip4[R, E, A, B, C, D, T](a: ZIO[R, E, A], b: ZIO[R, E, B], c: ZIO[R, E, C], d: ZIO[R, E, D], combine: (A, B, C, D) => T)(implicit trace: Trace): ZIO[R, E, T] = {
+    a.flatMap(w => b.flatMap(x => c.flatMap(y => d.map(z => combine(w, x, y, z)))))
+  }
+}